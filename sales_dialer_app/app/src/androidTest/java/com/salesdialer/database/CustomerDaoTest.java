@@ -0,0 +1,88 @@
+package com.salesdialer.database;
+
+import static org.junit.Assert.assertEquals;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.salesdialer.model.Customer;
+import com.salesdialer.model.CustomerLevel;
+import com.salesdialer.model.CustomerStatus;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+/**
+ * 拨号队列查询：未知等级、未知状态（列值为NULL）的处理
+ */
+@RunWith(AndroidJUnit4.class)
+public class CustomerDaoTest {
+    
+    private AppDatabase database;
+    private CustomerDao customerDao;
+    
+    @Before
+    public void setUp() {
+        Context context = ApplicationProvider.getApplicationContext();
+        database = Room.inMemoryDatabaseBuilder(context, AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        customerDao = database.customerDao();
+    }
+    
+    @After
+    public void tearDown() {
+        database.close();
+    }
+    
+    @Test
+    public void dialQueueKeepsUnknownStatus() {
+        customerDao.insertCustomers(Arrays.asList(
+                customer(1, CustomerLevel.A, CustomerStatus.VALID, 0),
+                customer(2, CustomerLevel.A, CustomerStatus.UNKNOWN, 0),
+                customer(3, CustomerLevel.A, CustomerStatus.INVALID, 0)));
+        
+        assertEquals(Arrays.asList(1, 2), customerDao.getDialQueueIds());
+    }
+    
+    @Test
+    public void dialQueuePutsUnknownLevelLast() {
+        customerDao.insertCustomers(Arrays.asList(
+                customer(1, CustomerLevel.UNKNOWN, CustomerStatus.VALID, 100),
+                customer(2, CustomerLevel.C, CustomerStatus.VALID, 300),
+                customer(3, CustomerLevel.A, CustomerStatus.VALID, 200),
+                customer(4, CustomerLevel.A, CustomerStatus.VALID, 100),
+                customer(5, CustomerLevel.UNKNOWN, CustomerStatus.UNKNOWN, 50)));
+        
+        assertEquals(Arrays.asList(4, 3, 2, 5, 1), customerDao.getDialQueueIds());
+    }
+    
+    @Test
+    public void dialQueueByOwnerAppliesSameRules() {
+        Customer other = customer(4, CustomerLevel.A, CustomerStatus.VALID, 0);
+        other.setOwnerId(8);
+        customerDao.insertCustomers(Arrays.asList(
+                customer(1, CustomerLevel.UNKNOWN, CustomerStatus.UNKNOWN, 0),
+                customer(2, CustomerLevel.B, CustomerStatus.VALID, 0),
+                customer(3, CustomerLevel.A, CustomerStatus.INVALID, 0),
+                other));
+        
+        assertEquals(Arrays.asList(2, 1), customerDao.getDialQueueIdsByOwner(7));
+    }
+    
+    private static Customer customer(int id, CustomerLevel level, CustomerStatus status, long lastCallTime) {
+        Customer customer = new Customer(id, "客户" + id, "1380000000" + id);
+        customer.setLevel(level);
+        customer.setStatus(status);
+        customer.setOwnerId(7);
+        customer.setLastCallTime(lastCallTime);
+        return customer;
+    }
+}
@@ -0,0 +1,21 @@
+package com.salesdialer;
+
+import android.app.Application;
+
+import com.salesdialer.utils.StartupInitializer;
+import com.salesdialer.utils.StartupTracer;
+
+/**
+ * 应用入口
+ * 启动后台预热（见StartupInitializer），并记录Application创建的耗时
+ */
+public class SalesDialerApplication extends Application {
+    
+    @Override
+    public void onCreate() {
+        StartupTracer.mark("application_create");
+        super.onCreate();
+        StartupInitializer.warmUp(this);
+        StartupTracer.mark("application_created");
+    }
+}
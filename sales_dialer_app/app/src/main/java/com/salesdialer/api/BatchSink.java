@@ -0,0 +1,16 @@
+package com.salesdialer.api;
+
+import java.util.List;
+
+/**
+ * 分批写入的接收器
+ * 每一批在服务器上写入成功后立即回调，调用方应在此时把这一批的结果落库，
+ * 后续批次失败时已成功的批次不会被重复提交
+ */
+public interface BatchSink<T> {
+    
+    /**
+     * 接收一批已写入服务器的记录
+     */
+    void accept(List<T> batch) throws Exception;
+}
@@ -0,0 +1,173 @@
+package com.salesdialer.api;
+
+import com.google.gson.JsonArray;
+import com.salesdialer.model.CustomerLevel;
+import com.salesdialer.model.CustomerStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 拨号队列查询构建器
+ * 把拨号条件转换成Odoo搜索域和排序，只从服务器拉取可拨打的那部分客户，且到达时已排好序
+ *
+ * <pre>
+ * DialQueueQuery query = new DialQueueQuery()
+ *         .levels(CustomerLevel.A, CustomerLevel.B)
+ *         .owner(apiClient.getUserId())
+ *         .notFollowedSince(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(7));
+ * List&lt;Customer&gt; queue = apiClient.getDialQueue(query, 300);
+ * </pre>
+ */
+public class DialQueueQuery {
+    
+    // 11位及以上的手机号（=like中 _ 匹配单个字符）
+    private static final String VALID_PHONE_PATTERN = "___________%";
+    
+    private final List<CustomerLevel> levels = new ArrayList<>();
+    private boolean excludeInvalid = true;
+    private boolean requireValidPhone = true;
+    private int ownerId = 0;
+    private long notFollowedSince = 0;
+    private String strategy = "priority";
+    
+    // notFollowedSince解析出的需排除客户，由OdooApiClient在查询前填充
+    private JsonArray excludedIds;
+    
+    /**
+     * 只包含指定等级的客户，不设置表示全部等级
+     */
+    public DialQueueQuery levels(CustomerLevel... levels) {
+        this.levels.clear();
+        for (CustomerLevel level : levels) {
+            if (level.getCode() != null) {
+                this.levels.add(level);
+            }
+        }
+        return this;
+    }
+    
+    /**
+     * 只包含指定归属人的客户，0表示不限
+     */
+    public DialQueueQuery owner(int ownerId) {
+        this.ownerId = ownerId;
+        return this;
+    }
+    
+    /**
+     * 排除自该时间（UTC毫秒）以来已有跟进记录的客户，0表示不限
+     */
+    public DialQueueQuery notFollowedSince(long millis) {
+        this.notFollowedSince = millis;
+        this.excludedIds = null;
+        return this;
+    }
+    
+    public DialQueueQuery includeInvalid(boolean include) {
+        this.excludeInvalid = !include;
+        return this;
+    }
+    
+    public DialQueueQuery requireValidPhone(boolean require) {
+        this.requireValidPhone = require;
+        return this;
+    }
+    
+    /**
+     * 排序策略：priority（等级优先）、time（最久未更新优先）、random（按id顺序返回）
+     * 服务器端队列按页边拨边取，不会在本地打乱；需要随机顺序时把客户列表交给拨号服务按RandomStrategy排序
+     */
+    public DialQueueQuery strategy(String strategy) {
+        this.strategy = strategy;
+        return this;
+    }
+    
+    public long getNotFollowedSince() {
+        return notFollowedSince;
+    }
+    
+    public String getStrategy() {
+        return strategy;
+    }
+    
+    boolean needsExclusion() {
+        return notFollowedSince > 0 && excludedIds == null;
+    }
+    
+    void setExcludedIds(Collection<Integer> ids) {
+        excludedIds = new JsonArray();
+        for (int id : ids) {
+            excludedIds.add(id);
+        }
+    }
+    
+    /**
+     * 构建搜索域（各条件之间为AND）
+     */
+    public JsonArray buildDomain() {
+        JsonArray domain = new JsonArray();
+        
+        if (!levels.isEmpty()) {
+            JsonArray levelArray = new JsonArray();
+            for (CustomerLevel level : levels) {
+                levelArray.add(level.getCode());
+            }
+            domain.add(leaf("level", "in", levelArray));
+        }
+        
+        if (excludeInvalid) {
+            domain.add(leaf("status", "!=", CustomerStatus.INVALID.getCode()));
+        }
+        
+        if (requireValidPhone) {
+            domain.add(leaf("phone", "=like", VALID_PHONE_PATTERN));
+        }
+        
+        if (ownerId > 0) {
+            JsonArray ownerLeaf = new JsonArray();
+            ownerLeaf.add("owner_id");
+            ownerLeaf.add("=");
+            ownerLeaf.add(ownerId);
+            domain.add(ownerLeaf);
+        }
+        
+        if (excludedIds != null && excludedIds.size() > 0) {
+            domain.add(leaf("id", "not in", excludedIds));
+        }
+        
+        return domain;
+    }
+    
+    /**
+     * 构建与策略对应的排序
+     * 服务器没有本地的最后拨打时间，time策略以write_date近似
+     */
+    public String buildOrder() {
+        switch (strategy) {
+            case "priority":
+                return "level asc, id asc";
+            case "time":
+                return "write_date asc, id asc";
+            default:
+                return "id asc";
+        }
+    }
+    
+    private static JsonArray leaf(String field, String operator, String value) {
+        JsonArray leaf = new JsonArray();
+        leaf.add(field);
+        leaf.add(operator);
+        leaf.add(value);
+        return leaf;
+    }
+    
+    private static JsonArray leaf(String field, String operator, JsonArray values) {
+        JsonArray leaf = new JsonArray();
+        leaf.add(field);
+        leaf.add(operator);
+        leaf.add(values);
+        return leaf;
+    }
+}
@@ -5,32 +5,59 @@ import android.util.Log;
 
 import com.google.gson.Gson;
 import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.salesdialer.BuildConfig;
 import com.salesdialer.model.Customer;
+import com.salesdialer.model.CustomerFieldSet;
 import com.salesdialer.model.FollowUp;
+import com.salesdialer.utils.CredentialStore;
+import com.salesdialer.utils.OdooDateTime;
+import com.salesdialer.utils.OdooMany2one;
 import com.salesdialer.utils.PreferenceUtils;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.Set;
 
-import okhttp3.MediaType;
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
-import okhttp3.logging.HttpLoggingInterceptor;
+import okhttp3.ResponseBody;
+import okio.Timeout;
 
 /**
  * Odoo API客户端
  * 使用JSON-RPC协议与Odoo后台通信
+ *
+ * <p>错误处理：响应中的error对象解析为OdooRpcException抛出（异步接口交给onFailure），不会被当成空结果。
+ * 会话失效时用CredentialStore中保存的凭据重新登录并重放原请求一次；
+ * 并发请求同时遇到失效时只登录一次，其余请求等待登录完成后直接重放。</p>
  */
 public class OdooApiClient {
     
     private static final String TAG = "OdooApiClient";
-    private static OdooApiClient instance;
+    private static volatile OdooApiClient instance;
+    
+    private static final String CALL_KW_ENDPOINT = "/web/dataset/call_kw";
+    private static final String AUTHENTICATE_ENDPOINT = "/web/session/authenticate";
+    private static final String VERSION_INFO_ENDPOINT = "/web/webclient/version_info";
+    private static final int DEFAULT_FOLLOW_UP_BATCH_SIZE = 50;
+    private static final int DETAIL_BATCH_SIZE = 200;
+    
+    private static final String[] FOLLOW_UP_FIELDS = {
+            "customer_id", "follower_id", "follow_content",
+            "follow_time", "result", "next_follow_time", "create_date"
+    };
     
     private Context context;
     private OkHttpClient client;
@@ -39,32 +66,58 @@ public class OdooApiClient {
     private String baseUrl;
     private String database;
     private int userId;
-    private String sessionId;
+    private volatile String sessionId;
+    
+    // 每次登录成功加一；请求发出时记下代数，失效后若代数已变说明其他请求已重新登录，直接重放即可
+    private final Object authLock = new Object();
+    private volatile int sessionGeneration = 0;
+    
+    private int followUpBatchSize = DEFAULT_FOLLOW_UP_BATCH_SIZE;
     
     private OdooApiClient(Context context) {
         this.context = context.getApplicationContext();
         this.gson = new Gson();
         
-        // 配置OkHttp客户端
-        HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
-        logging.setLevel(HttpLoggingInterceptor.Level.BODY);
-        
-        client = new OkHttpClient.Builder()
-                .connectTimeout(30, TimeUnit.SECONDS)
-                .readTimeout(30, TimeUnit.SECONDS)
-                .writeTimeout(30, TimeUnit.SECONDS)
-                .addInterceptor(logging)
-                .build();
+        // 共享的OkHttp客户端（连接池、并发、压缩见OdooHttpConfig）
+        client = OdooHttpConfig.getSharedClient();
         
         // 从本地存储加载配置
         loadConfig();
     }
     
-    public static synchronized OdooApiClient getInstance(Context context) {
-        if (instance == null) {
-            instance = new OdooApiClient(context);
+    /**
+     * 双重检查：创建完成后的调用只读一次volatile字段，不再竞争全局锁
+     */
+    public static OdooApiClient getInstance(Context context) {
+        OdooApiClient result = instance;
+        if (result == null) {
+            synchronized (OdooApiClient.class) {
+                result = instance;
+                if (result == null) {
+                    result = new OdooApiClient(context);
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+    
+    /**
+     * 预连接服务器
+     * 请求无需登录的version_info接口，完成DNS解析、TCP和TLS握手，连接留在连接池中供后续请求复用。
+     * 在后台线程调用；未配置服务器地址或网络不可用时直接返回
+     */
+    public void preconnect() {
+        if (baseUrl == null || baseUrl.isEmpty()) {
+            return;
+        }
+        Request request = buildPostRequest(VERSION_INFO_ENDPOINT,
+                buildJsonRpcRequest("call", new JsonObject()).toString());
+        try (Response response = client.newCall(request).execute()) {
+            Log.d(TAG, "Preconnected to " + baseUrl + ", HTTP " + response.code() + " " + response.protocol());
+        } catch (Exception e) {
+            Log.d(TAG, "Preconnect failed: " + e.getMessage());
         }
-        return instance;
     }
     
     private void loadConfig() {
@@ -83,107 +136,375 @@ public class OdooApiClient {
     
     /**
      * 登录认证
+     * 成功后保存凭据，供会话失效时自动重新登录
+     *
+     * @return 用户名、密码或数据库错误时返回false
      */
     public boolean authenticate(String url, String db, String username, String password) throws Exception {
-        this.baseUrl = url;
-        this.database = db;
+        synchronized (authLock) {
+            this.baseUrl = url;
+            this.database = db;
+            
+            // 构建认证请求
+            JsonObject params = new JsonObject();
+            params.addProperty("db", database);
+            params.addProperty("login", username);
+            params.addProperty("password", password);
+            
+            JsonObject request = buildJsonRpcRequest("call", params);
+            
+            // 发送请求
+            JsonObject result;
+            try {
+                result = post(AUTHENTICATE_ENDPOINT, request.toString());
+            } catch (OdooRpcException e) {
+                Log.w(TAG, "Authentication rejected: " + e.getMessage());
+                return false;
+            }
+            
+            if (result.has("result") && result.get("result").isJsonObject()) {
+                JsonObject resultObj = result.getAsJsonObject("result");
+                if (resultObj.has("uid") && resultObj.get("uid").isJsonPrimitive()) {
+                    userId = resultObj.get("uid").getAsInt();
+                    if (resultObj.has("session_id")) {
+                        sessionId = resultObj.get("session_id").getAsString();
+                    }
+                    sessionGeneration++;
+                    saveConfig();
+                    CredentialStore.save(context, username, password);
+                    return true;
+                }
+            }
+            
+            return false;
+        }
+    }
+    
+    /**
+     * 会话失效后重新登录
+     * 同一时刻只有一个请求真正登录；等待锁的请求发现代数已变化时直接返回，由调用方重放
+     *
+     * @param failedGeneration 失败请求发出时的会话代数
+     * @throws OdooRpcException 没有保存的凭据或重新登录失败
+     */
+    private void reauthenticate(int failedGeneration, OdooRpcException cause) throws Exception {
+        synchronized (authLock) {
+            if (sessionGeneration != failedGeneration) {
+                return;
+            }
+            CredentialStore.Credentials credentials = CredentialStore.load(context);
+            if (credentials == null) {
+                throw cause;
+            }
+            Log.i(TAG, "Session expired, re-authenticating");
+            if (!authenticate(baseUrl, database, credentials.login, credentials.password)) {
+                throw cause;
+            }
+        }
+    }
+    
+    /**
+     * 获取客户列表
+     */
+    public List<Customer> getCustomers(int limit, int offset) throws Exception {
+        List<Customer> customers = new ArrayList<>();
+        getCustomers(limit, offset, customers::add);
+        return customers;
+    }
+    
+    /**
+     * 流式获取客户列表
+     * 响应边读边解析，每条客户记录解析完成后立即交给sink
+     *
+     * @return 本页客户数
+     */
+    public int getCustomers(int limit, int offset, RecordSink<Customer> sink) throws Exception {
+        return searchCustomers(new JsonArray(), "write_date asc", limit, offset, sink);
+    }
+    
+    /**
+     * 按搜索域流式查询客户
+     *
+     * @param domain Odoo搜索域
+     * @param order  排序，如 "write_date asc, id asc"
+     * @return 本页客户数
+     */
+    public int searchCustomers(JsonArray domain, String order, int limit, int offset,
+                               RecordSink<Customer> sink) throws Exception {
+        return searchCustomers(domain, order, limit, offset, CustomerFieldSet.DETAIL, sink);
+    }
+    
+    /**
+     * 按搜索域和字段投影流式查询客户
+     * 非DETAIL投影返回的客户缺少部分字段，可通过loadCustomerDetails补全
+     */
+    public int searchCustomers(JsonArray domain, String order, int limit, int offset,
+                               CustomerFieldSet fieldSet, RecordSink<Customer> sink) throws Exception {
+        return searchReadStream(buildCustomerSearchParams(domain, order, limit, offset, fieldSet),
+                Customer.class, customer -> {
+                    customer.setFieldSet(fieldSet);
+                    sink.accept(customer);
+                });
+    }
+    
+    /**
+     * 获取拨号队列
+     * 按查询条件在服务器端筛选并排序，只返回拨号所需的精简字段
+     */
+    public List<Customer> getDialQueue(DialQueueQuery query, int limit) throws Exception {
+        List<Customer> customers = new ArrayList<>();
+        searchDialQueue(query, limit, 0, customers::add);
+        return customers;
+    }
+    
+    /**
+     * 分页流式获取拨号队列
+     *
+     * @return 本页客户数
+     */
+    public int searchDialQueue(DialQueueQuery query, int limit, int offset,
+                               RecordSink<Customer> sink) throws Exception {
+        if (query.needsExclusion()) {
+            query.setExcludedIds(getFollowedCustomerIds(query.getNotFollowedSince()));
+        }
+        return searchCustomers(query.buildDomain(), query.buildOrder(), limit, offset,
+                CustomerFieldSet.DIAL_QUEUE, sink);
+    }
+    
+    /**
+     * 获取拨号队列的客户id快照（已按查询条件排序）
+     * 只传输id，调用方再用readCustomers按页读取；拨号过程中客户的排序字段会变化，
+     * 按快照读取不会因为offset分页而跳过或重复客户
+     */
+    public int[] searchDialQueueIds(DialQueueQuery query) throws Exception {
+        if (query.needsExclusion()) {
+            query.setExcludedIds(getFollowedCustomerIds(query.getNotFollowedSince()));
+        }
         
-        // 构建认证请求
-        JsonObject params = new JsonObject();
-        params.addProperty("db", database);
-        params.addProperty("login", username);
-        params.addProperty("password", password);
+        Map<String, Object> kwargs = new HashMap<>();
+        kwargs.put("order", query.buildOrder());
         
-        JsonObject request = buildJsonRpcRequest("call", params);
+        Map<String, Object> params = new HashMap<>();
+        params.put("model", "crm.customer");
+        params.put("method", "search");
+        params.put("args", new Object[]{query.buildDomain()});
+        params.put("kwargs", kwargs);
         
-        // 发送请求
-        String response = post("/web/session/authenticate", request.toString());
-        JsonObject result = gson.fromJson(response, JsonObject.class);
+        JsonArray result = callKw(params).getAsJsonArray("result");
+        int[] ids = new int[result.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = result.get(i).getAsInt();
+        }
+        return ids;
+    }
+    
+    /**
+     * 按id流式读取客户
+     * 返回顺序不保证与ids一致，已删除的客户不会返回
+     *
+     * @return 读取到的客户数
+     */
+    public int readCustomers(int[] ids, CustomerFieldSet fieldSet, RecordSink<Customer> sink) throws Exception {
+        JsonArray idsArray = new JsonArray();
+        for (int id : ids) {
+            idsArray.add(id);
+        }
+        
+        JsonArray idLeaf = new JsonArray();
+        idLeaf.add("id");
+        idLeaf.add("in");
+        idLeaf.add(idsArray);
+        JsonArray domain = new JsonArray();
+        domain.add(idLeaf);
+        
+        return searchCustomers(domain, null, ids.length, 0, fieldSet, sink);
+    }
+    
+    /**
+     * 获取自指定时间以来有跟进记录的客户id（服务器端按客户分组去重）
+     */
+    private Set<Integer> getFollowedCustomerIds(long since) throws Exception {
+        JsonArray sinceLeaf = new JsonArray();
+        sinceLeaf.add("follow_time");
+        sinceLeaf.add(">=");
+        sinceLeaf.add(OdooDateTime.format(since));
+        JsonArray domain = new JsonArray();
+        domain.add(sinceLeaf);
+        
+        Map<String, Object> kwargs = new HashMap<>();
+        kwargs.put("lazy", true);
+        
+        Map<String, Object> params = new HashMap<>();
+        params.put("model", "crm.customer.follow");
+        params.put("method", "read_group");
+        params.put("args", new Object[]{domain, new String[]{"customer_id"}, new String[]{"customer_id"}});
+        params.put("kwargs", kwargs);
+        
+        JsonObject result = callKw(params);
         
+        Set<Integer> ids = new HashSet<>();
         if (result.has("result")) {
-            JsonObject resultObj = result.getAsJsonObject("result");
-            if (resultObj.has("uid") && !resultObj.get("uid").isJsonNull()) {
-                userId = resultObj.get("uid").getAsInt();
-                if (resultObj.has("session_id")) {
-                    sessionId = resultObj.get("session_id").getAsString();
+            JsonArray groups = result.getAsJsonArray("result");
+            for (int i = 0; i < groups.size(); i++) {
+                int customerId = OdooMany2one.idOf(groups.get(i).getAsJsonObject().get("customer_id"));
+                if (customerId != OdooMany2one.UNSET) {
+                    ids.add(customerId);
                 }
-                saveConfig();
-                return true;
             }
         }
-        
-        return false;
+        return ids;
     }
     
     /**
-     * 获取客户列表
+     * 补全精简客户的详情字段
+     * 只请求尚未加载详情的客户，按id批量读取
      */
-    public List<Customer> getCustomers(int limit, int offset) throws Exception {
-        // 构建搜索域
-        JsonArray domain = new JsonArray();
+    public void loadCustomerDetails(List<Customer> customers) throws Exception {
+        Map<Integer, Customer> pending = new HashMap<>();
+        for (Customer customer : customers) {
+            if (!customer.isDetailLoaded()) {
+                pending.put(customer.getId(), customer);
+            }
+        }
         
-        // 构建请求参数
+        List<Integer> ids = new ArrayList<>(pending.keySet());
+        for (int start = 0; start < ids.size(); start += DETAIL_BATCH_SIZE) {
+            List<Integer> batch = ids.subList(start, Math.min(start + DETAIL_BATCH_SIZE, ids.size()));
+            int[] batchIds = new int[batch.size()];
+            for (int i = 0; i < batchIds.length; i++) {
+                batchIds[i] = batch.get(i);
+            }
+            
+            readCustomers(batchIds, CustomerFieldSet.DETAIL, detail -> {
+                Customer target = pending.get(detail.getId());
+                if (target != null) {
+                    target.applyDetail(detail);
+                }
+            });
+        }
+    }
+    
+    /**
+     * 补全单个客户的详情字段
+     */
+    public void loadCustomerDetail(Customer customer) throws Exception {
+        List<Customer> single = new ArrayList<>(1);
+        single.add(customer);
+        loadCustomerDetails(single);
+    }
+    
+    /**
+     * 统计满足搜索域的客户数
+     */
+    public int countCustomers(JsonArray domain) throws Exception {
+        return parseCountResult(callKw(buildCustomerCountParams(domain)));
+    }
+    
+    private Map<String, Object> buildCustomerSearchParams(JsonArray domain, String order, int limit, int offset,
+                                                          CustomerFieldSet fieldSet) {
         Map<String, Object> params = new HashMap<>();
         params.put("model", "crm.customer");
         params.put("method", "search_read");
         params.put("args", new Object[]{domain});
-        params.put("kwargs", buildKwargs(
-                new String[]{"name", "phone", "wechat_name", "customer_type", "level", 
-                        "status", "requirement", "remark", "intended_property", 
-                        "owner_id", "follow_count", "write_date", "create_date"},
-                limit,
-                offset,
-                "write_date asc"
-        ));
+        params.put("kwargs", buildKwargs(fieldSet.getFields(), limit, offset, order));
+        return params;
+    }
+    
+    private Map<String, Object> buildCustomerCountParams(JsonArray domain) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("model", "crm.customer");
+        params.put("method", "search_count");
+        params.put("args", new Object[]{domain});
+        params.put("kwargs", new HashMap<>());
+        return params;
+    }
+    
+    /**
+     * 创建跟进记录
+     */
+    public int createFollowUp(FollowUp followUp) throws Exception {
+        JsonArray valsArray = new JsonArray();
+        valsArray.add(buildFollowUpVals(followUp));
         
         // 发送请求
-        String response = callKw(params);
-        JsonObject result = gson.fromJson(response, JsonObject.class);
+        return parseCreateResult(callKw(buildCreateFollowUpParams(valsArray)));
+    }
+    
+    /**
+     * 批量创建跟进记录
+     * 按followUpBatchSize分批，每批的vals打包成一次create调用；
+     * 服务器按顺序返回新记录id，回填到对应FollowUp并标记为已同步，随后立即交给sink落库
+     *
+     * @param sink 每批创建成功后回调，之后的批次失败时这一批也已在本地标记为已同步
+     * @return 成功创建的条数
+     * @throws Exception 某一批失败，之前的批次已全部交给sink
+     */
+    public int createFollowUps(List<FollowUp> followUps, BatchSink<FollowUp> sink) throws Exception {
+        int created = 0;
         
-        List<Customer> customers = new ArrayList<>();
-        if (result.has("result")) {
-            JsonArray records = result.getAsJsonArray("result");
-            for (int i = 0; i < records.size(); i++) {
-                JsonObject record = records.get(i).getAsJsonObject();
-                Customer customer = gson.fromJson(record, Customer.class);
-                customers.add(customer);
+        for (int start = 0; start < followUps.size(); start += followUpBatchSize) {
+            List<FollowUp> batch = followUps.subList(start,
+                    Math.min(start + followUpBatchSize, followUps.size()));
+            
+            JsonArray valsArray = new JsonArray();
+            for (FollowUp followUp : batch) {
+                valsArray.add(buildFollowUpVals(followUp));
+            }
+            
+            // 发送请求，错误响应由callKw抛出OdooRpcException
+            JsonObject result = callKw(buildCreateFollowUpParams(valsArray));
+            JsonElement ids = result.get("result");
+            if (ids == null || !ids.isJsonArray() || ids.getAsJsonArray().size() != batch.size()) {
+                throw new IOException("Unexpected create result for " + batch.size()
+                        + " follow-ups at " + start + ": " + ids);
+            }
+            
+            JsonArray idArray = ids.getAsJsonArray();
+            for (int i = 0; i < batch.size(); i++) {
+                FollowUp followUp = batch.get(i);
+                followUp.setId(idArray.get(i).getAsInt());
+                followUp.setSynced(true);
             }
+            sink.accept(batch);
+            created += batch.size();
         }
         
-        return customers;
+        return created;
     }
     
     /**
-     * 创建跟进记录
+     * 构建跟进记录的create参数
      */
-    public int createFollowUp(FollowUp followUp) throws Exception {
-        // 构建参数
+    private JsonObject buildFollowUpVals(FollowUp followUp) {
         JsonObject vals = new JsonObject();
         vals.addProperty("customer_id", followUp.getCustomerId());
         vals.addProperty("follow_content", followUp.getFollowContent());
-        vals.addProperty("result", followUp.getResult());
-        if (followUp.getNextFollowTime() != null) {
-            vals.addProperty("next_follow_time", followUp.getNextFollowTime());
+        vals.addProperty("result", followUp.getResult().getCode());
+        // 离线记录可能很久之后才上传，跟进时间以本地记录时为准，不使用服务器的创建时间
+        if (followUp.getFollowTime() != OdooDateTime.UNSET) {
+            vals.addProperty("follow_time", OdooDateTime.format(followUp.getFollowTime()));
+        }
+        if (followUp.getNextFollowTime() != OdooDateTime.UNSET) {
+            vals.addProperty("next_follow_time", OdooDateTime.format(followUp.getNextFollowTime()));
+        }
+        return vals;
+    }
+    
+    private int parseCreateResult(JsonObject result) {
+        if (result.has("result")) {
+            return result.get("result").getAsInt();
         }
         
-        JsonArray valsArray = new JsonArray();
-        valsArray.add(vals);
-        
+        return 0;
+    }
+    
+    private Map<String, Object> buildCreateFollowUpParams(JsonArray valsArray) {
         Map<String, Object> params = new HashMap<>();
         params.put("model", "crm.customer.follow");
         params.put("method", "create");
         params.put("args", new Object[]{valsArray});
         params.put("kwargs", new HashMap<>());
-        
-        // 发送请求
-        String response = callKw(params);
-        JsonObject result = gson.fromJson(response, JsonObject.class);
-        
-        if (result.has("result")) {
-            return result.get("result").getAsInt();
-        }
-        
-        return 0;
+        return params;
     }
     
     /**
@@ -191,27 +512,59 @@ public class OdooApiClient {
      */
     public boolean updateCustomer(int customerId, Map<String, Object> values) throws Exception {
         JsonObject vals = gson.toJsonTree(values).getAsJsonObject();
-        
+        return updateCustomers(new int[]{customerId}, vals);
+    }
+    
+    /**
+     * 批量更新客户信息
+     * 多个客户写入相同的值时合并为一次write调用
+     */
+    public boolean updateCustomers(int[] customerIds, JsonObject vals) throws Exception {
+        // 发送请求
+        return parseWriteResult(callKw(buildWriteCustomerParams(customerIds, vals)));
+    }
+    
+    private Map<String, Object> buildWriteCustomerParams(int[] customerIds, JsonObject vals) {
         JsonArray idsArray = new JsonArray();
-        idsArray.add(customerId);
+        for (int customerId : customerIds) {
+            idsArray.add(customerId);
+        }
         
         Map<String, Object> params = new HashMap<>();
         params.put("model", "crm.customer");
         params.put("method", "write");
         params.put("args", new Object[]{idsArray, vals});
         params.put("kwargs", new HashMap<>());
-        
-        // 发送请求
-        String response = callKw(params);
-        JsonObject result = gson.fromJson(response, JsonObject.class);
-        
+        return params;
+    }
+    
+    private boolean parseWriteResult(JsonObject result) {
         return result.has("result") && result.get("result").getAsBoolean();
     }
     
+    private int parseCountResult(JsonObject result) {
+        return result.has("result") ? result.get("result").getAsInt() : 0;
+    }
+    
     /**
      * 获取客户的跟进记录
      */
     public List<FollowUp> getFollowUps(int customerId) throws Exception {
+        List<FollowUp> followUps = new ArrayList<>();
+        getFollowUps(customerId, followUps::add);
+        return followUps;
+    }
+    
+    /**
+     * 流式获取客户的跟进记录
+     *
+     * @return 跟进记录数
+     */
+    public int getFollowUps(int customerId, RecordSink<FollowUp> sink) throws Exception {
+        return searchReadStream(buildFollowUpSearchParams(customerId), FollowUp.class, sink);
+    }
+    
+    private Map<String, Object> buildFollowUpSearchParams(int customerId) {
         // 构建搜索域
         JsonArray domain = new JsonArray();
         JsonArray customerDomain = new JsonArray();
@@ -224,29 +577,93 @@ public class OdooApiClient {
         params.put("model", "crm.customer.follow");
         params.put("method", "search_read");
         params.put("args", new Object[]{domain});
-        params.put("kwargs", buildKwargs(
-                new String[]{"customer_id", "follower_id", "follow_content", 
-                        "follow_time", "result", "next_follow_time", "create_date"},
-                100,
-                0,
-                "follow_time desc"
-        ));
-        
-        // 发送请求
-        String response = callKw(params);
-        JsonObject result = gson.fromJson(response, JsonObject.class);
-        
-        List<FollowUp> followUps = new ArrayList<>();
-        if (result.has("result")) {
-            JsonArray records = result.getAsJsonArray("result");
-            for (int i = 0; i < records.size(); i++) {
-                JsonObject record = records.get(i).getAsJsonObject();
-                FollowUp followUp = gson.fromJson(record, FollowUp.class);
-                followUps.add(followUp);
-            }
-        }
-        
-        return followUps;
+        params.put("kwargs", buildKwargs(FOLLOW_UP_FIELDS, 100, 0, "follow_time desc"));
+        return params;
+    }
+    
+    // ==================== 异步接口 ====================
+    // 回调在OkHttp的工作线程执行；返回的Call可随时cancel()，取消后回调onFailure
+    
+    /**
+     * 异步获取客户列表
+     */
+    public Call getCustomersAsync(int limit, int offset, OdooCallback<List<Customer>> callback) {
+        return searchCustomersAsync(new JsonArray(), "write_date asc", limit, offset, callback);
+    }
+    
+    /**
+     * 异步按搜索域查询客户
+     */
+    public Call searchCustomersAsync(JsonArray domain, String order, int limit, int offset,
+                                     OdooCallback<List<Customer>> callback) {
+        return searchCustomersAsync(domain, order, limit, offset, CustomerFieldSet.DETAIL, callback);
+    }
+    
+    /**
+     * 异步按搜索域和字段投影查询客户
+     */
+    public Call searchCustomersAsync(JsonArray domain, String order, int limit, int offset,
+                                     CustomerFieldSet fieldSet, OdooCallback<List<Customer>> callback) {
+        return enqueueSearchRead(buildCustomerSearchParams(domain, order, limit, offset, fieldSet), Customer.class,
+                new OdooCallback<List<Customer>>() {
+                    @Override
+                    public void onSuccess(List<Customer> customers) {
+                        for (Customer customer : customers) {
+                            customer.setFieldSet(fieldSet);
+                        }
+                        callback.onSuccess(customers);
+                    }
+                    
+                    @Override
+                    public void onFailure(Exception e) {
+                        callback.onFailure(e);
+                    }
+                });
+    }
+    
+    /**
+     * 异步统计客户数
+     */
+    public Call countCustomersAsync(JsonArray domain, OdooCallback<Integer> callback) {
+        return enqueueCallKw(buildCustomerCountParams(domain), this::parseCountResult, callback);
+    }
+    
+    /**
+     * 异步获取客户的跟进记录
+     */
+    public Call getFollowUpsAsync(int customerId, OdooCallback<List<FollowUp>> callback) {
+        return enqueueSearchRead(buildFollowUpSearchParams(customerId), FollowUp.class, callback);
+    }
+    
+    /**
+     * 异步创建跟进记录
+     */
+    public Call createFollowUpAsync(FollowUp followUp, OdooCallback<Integer> callback) {
+        JsonArray valsArray = new JsonArray();
+        valsArray.add(buildFollowUpVals(followUp));
+        return enqueueCallKw(buildCreateFollowUpParams(valsArray), this::parseCreateResult, callback);
+    }
+    
+    /**
+     * 异步更新客户信息
+     */
+    public Call updateCustomerAsync(int customerId, Map<String, Object> values, OdooCallback<Boolean> callback) {
+        JsonObject vals = gson.toJsonTree(values).getAsJsonObject();
+        return enqueueCallKw(buildWriteCustomerParams(new int[]{customerId}, vals), this::parseWriteResult, callback);
+    }
+    
+    private <T> Call enqueueSearchRead(Map<String, Object> params, Class<T> type, OdooCallback<List<T>> callback) {
+        JsonObject request = buildJsonRpcRequest("call", params);
+        return enqueue(CALL_KW_ENDPOINT, request.toString(), body -> {
+            List<T> records = new ArrayList<>();
+            SearchReadStreamParser.parse(new JsonReader(body.charStream()), gson.getAdapter(type), records::add);
+            return records;
+        }, callback);
+    }
+    
+    private <T> Call enqueueCallKw(Map<String, Object> params, ResultParser<T> parser, OdooCallback<T> callback) {
+        JsonObject request = buildJsonRpcRequest("call", params);
+        return enqueue(CALL_KW_ENDPOINT, request.toString(), body -> parser.parse(parseRpcResponse(body, true)), callback);
     }
     
     /**
@@ -266,9 +683,9 @@ public class OdooApiClient {
     /**
      * 调用Odoo的call_kw接口
      */
-    private String callKw(Map<String, Object> params) throws Exception {
+    private JsonObject callKw(Map<String, Object> params) throws Exception {
         JsonObject request = buildJsonRpcRequest("call", params);
-        return post("/web/dataset/call_kw", request.toString());
+        return post(CALL_KW_ENDPOINT, request.toString());
     }
     
     /**
@@ -283,19 +700,221 @@ public class OdooApiClient {
         return request;
     }
     
+    /**
+     * 以流式方式调用search_read
+     * 在OkHttp的响应流上直接用JsonReader逐条解析，不保留完整响应字符串和JSON树
+     */
+    private <T> int searchReadStream(Map<String, Object> params, Class<T> type, RecordSink<T> sink) throws Exception {
+        JsonObject request = buildJsonRpcRequest("call", params);
+        
+        return execute(CALL_KW_ENDPOINT, request.toString(), body -> {
+            JsonReader reader = new JsonReader(body.charStream());
+            int count = SearchReadStreamParser.parse(reader, gson.getAdapter(type), sink);
+            Log.d(TAG, "Streamed " + count + " records of " + params.get("model"));
+            return count;
+        });
+    }
+    
     /**
      * 发送POST请求
+     *
+     * @return 解析后的响应（不含error）
      */
-    private String post(String endpoint, String json) throws Exception {
+    private JsonObject post(String endpoint, String json) throws Exception {
+        // 登录响应带session_id，不记录
+        boolean loggable = !AUTHENTICATE_ENDPOINT.equals(endpoint);
+        return execute(endpoint, json, body -> parseRpcResponse(body, loggable));
+    }
+    
+    /**
+     * 解析JSON-RPC响应
+     *
+     * @param loggable 是否可以在调试日志中输出响应内容
+     * @throws OdooRpcException 响应为error对象
+     */
+    private JsonObject parseRpcResponse(ResponseBody body, boolean loggable) throws Exception {
+        JsonObject result = JsonParser.parseReader(body.charStream()).getAsJsonObject();
+        if (BuildConfig.DEBUG && loggable) {
+            Log.d(TAG, "Response: " + result);
+        }
+        if (result.has("error") && result.get("error").isJsonObject()) {
+            throw OdooRpcException.from(result.getAsJsonObject("error"));
+        }
+        return result;
+    }
+    
+    /**
+     * 同步执行请求，会话失效时重新登录并重放一次
+     */
+    private <T> T execute(String endpoint, String json, ResponseHandler<T> handler) throws Exception {
+        int generation = sessionGeneration;
+        try {
+            return executeOnce(endpoint, json, handler);
+        } catch (OdooRpcException e) {
+            if (!e.isSessionExpired() || AUTHENTICATE_ENDPOINT.equals(endpoint)) {
+                throw e;
+            }
+            reauthenticate(generation, e);
+            return executeOnce(endpoint, json, handler);
+        }
+    }
+    
+    /**
+     * 同步执行请求，由handler在响应关闭前读取响应体
+     */
+    private <T> T executeOnce(String endpoint, String json, ResponseHandler<T> handler) throws Exception {
+        return executeCall(client.newCall(buildPostRequest(endpoint, json)), handler);
+    }
+    
+    private <T> T executeCall(Call call, ResponseHandler<T> handler) throws Exception {
+        try (Response response = call.execute()) {
+            if (!response.isSuccessful()) {
+                throw new Exception("HTTP " + response.code() + ": " + response.message());
+            }
+            return handler.handle(response.body());
+        }
+    }
+    
+    /**
+     * 异步执行请求
+     * 会话失效时在OkHttp工作线程上重新登录并同步重放一次；
+     * 返回的Call在重放期间取消同样有效，已取消的请求不再重放
+     */
+    private <T> Call enqueue(String endpoint, String json, ResponseHandler<T> handler, OdooCallback<T> callback) {
+        int generation = sessionGeneration;
+        ReplayableCall handle = new ReplayableCall(client.newCall(buildPostRequest(endpoint, json)));
+        handle.original.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                callback.onFailure(e);
+            }
+            
+            @Override
+            public void onResponse(Call call, Response response) {
+                T result;
+                try {
+                    try (Response closeable = response) {
+                        if (!closeable.isSuccessful()) {
+                            throw new Exception("HTTP " + closeable.code() + ": " + closeable.message());
+                        }
+                        result = handler.handle(closeable.body());
+                    } catch (OdooRpcException e) {
+                        if (!e.isSessionExpired() || handle.isCanceled()) {
+                            throw e;
+                        }
+                        reauthenticate(generation, e);
+                        Call replay = client.newCall(buildPostRequest(endpoint, json));
+                        if (!handle.replaceWith(replay)) {
+                            throw new IOException("Canceled");
+                        }
+                        result = executeCall(replay, handler);
+                    }
+                } catch (Exception e) {
+                    callback.onFailure(e);
+                    return;
+                }
+                callback.onSuccess(result);
+            }
+        });
+        return handle;
+    }
+    
+    /**
+     * 返回给调用方的请求句柄
+     * 会话失效重放时实际执行的是新的Call，取消需要同时作用到原请求和正在执行的重放请求
+     */
+    private static class ReplayableCall implements Call {
+        
+        private final Call original;
+        private Call current;
+        
+        ReplayableCall(Call original) {
+            this.original = original;
+            this.current = original;
+        }
+        
+        /**
+         * 切换到重放请求
+         *
+         * @return 已被取消时返回false，不应再重放
+         */
+        synchronized boolean replaceWith(Call replay) {
+            if (original.isCanceled()) {
+                return false;
+            }
+            current = replay;
+            return true;
+        }
+        
+        @Override
+        public synchronized void cancel() {
+            original.cancel();
+            current.cancel();
+        }
+        
+        @Override
+        public boolean isCanceled() {
+            return original.isCanceled();
+        }
+        
+        @Override
+        public boolean isExecuted() {
+            return original.isExecuted();
+        }
+        
+        @Override
+        public Request request() {
+            return original.request();
+        }
+        
+        @Override
+        public synchronized Timeout timeout() {
+            return current.timeout();
+        }
+        
+        @Override
+        public Response execute() {
+            throw new IllegalStateException("Already enqueued");
+        }
+        
+        @Override
+        public void enqueue(Callback responseCallback) {
+            throw new IllegalStateException("Already enqueued");
+        }
+        
+        @Override
+        public Call clone() {
+            return original.clone();
+        }
+    }
+    
+    /**
+     * 响应体处理器
+     */
+    private interface ResponseHandler<T> {
+        T handle(ResponseBody body) throws Exception;
+    }
+    
+    /**
+     * JSON-RPC结果解析器
+     */
+    private interface ResultParser<T> {
+        T parse(JsonObject response) throws Exception;
+    }
+    
+    /**
+     * 构建POST请求
+     */
+    private Request buildPostRequest(String endpoint, String json) {
         String url = baseUrl + endpoint;
         
-        Log.d(TAG, "Request URL: " + url);
-        Log.d(TAG, "Request Body: " + json);
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "Request URL: " + url);
+            // 登录请求带明文密码（会话失效时还会自动重放），不记录请求体
+            Log.d(TAG, "Request Body: " + (AUTHENTICATE_ENDPOINT.equals(endpoint) ? "<redacted>" : json));
+        }
         
-        RequestBody body = RequestBody.create(
-                MediaType.parse("application/json; charset=utf-8"),
-                json
-        );
+        RequestBody body = RequestBody.create(OdooHttpConfig.JSON, json);
         
         Request.Builder requestBuilder = new Request.Builder()
                 .url(url)
@@ -306,18 +925,7 @@ public class OdooApiClient {
             requestBuilder.addHeader("Cookie", "session_id=" + sessionId);
         }
         
-        Request request = requestBuilder.build();
-        
-        try (Response response = client.newCall(request).execute()) {
-            if (!response.isSuccessful()) {
-                throw new Exception("HTTP " + response.code() + ": " + response.message());
-            }
-            
-            String responseBody = response.body().string();
-            Log.d(TAG, "Response: " + responseBody);
-            
-            return responseBody;
-        }
+        return requestBuilder.build();
     }
     
     // Getters
@@ -337,9 +945,17 @@ public class OdooApiClient {
         return database;
     }
     
+    public void setFollowUpBatchSize(int followUpBatchSize) {
+        this.followUpBatchSize = Math.max(1, followUpBatchSize);
+    }
+    
     public void logout() {
-        userId = 0;
-        sessionId = "";
-        saveConfig();
+        synchronized (authLock) {
+            userId = 0;
+            sessionId = "";
+            sessionGeneration++;
+            saveConfig();
+            CredentialStore.clear(context);
+        }
     }
 }
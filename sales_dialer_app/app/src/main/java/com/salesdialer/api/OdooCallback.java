@@ -0,0 +1,15 @@
+package com.salesdialer.api;
+
+/**
+ * Odoo异步请求回调
+ * 回调在OkHttp的工作线程执行，需要更新界面时请自行切换到主线程
+ */
+public interface OdooCallback<T> {
+    
+    void onSuccess(T result);
+    
+    /**
+     * 请求失败或被取消
+     */
+    void onFailure(Exception e);
+}
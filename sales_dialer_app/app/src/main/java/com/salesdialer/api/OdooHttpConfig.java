@@ -0,0 +1,181 @@
+package com.salesdialer.api;
+
+import com.salesdialer.BuildConfig;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.logging.HttpLoggingInterceptor;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+
+/**
+ * Odoo网络配置
+ * 集中管理OkHttp连接池、并发、协议和压缩参数，所有Odoo请求共用同一个客户端
+ *
+ * <p>响应压缩：OkHttp在请求未显式设置Accept-Encoding时会自动协商gzip并透明解压，
+ * 因此这里不手动添加该请求头，否则会关闭透明解压。</p>
+ *
+ * <p>HTTP/2：HTTPS连接通过ALPN自动协商，nginx开启http2后无需额外配置即可多路复用；
+ * 明文http只能走HTTP/1.1。</p>
+ */
+public class OdooHttpConfig {
+    
+    public static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+    
+    // 默认参数
+    private static final int DEFAULT_MAX_IDLE_CONNECTIONS = 5;
+    private static final long DEFAULT_KEEP_ALIVE_SECONDS = 300;
+    private static final int DEFAULT_MAX_REQUESTS = 16;
+    private static final int DEFAULT_MAX_REQUESTS_PER_HOST = 6;
+    private static final long DEFAULT_CONNECT_TIMEOUT_SECONDS = 15;
+    private static final long DEFAULT_READ_TIMEOUT_SECONDS = 30;
+    private static final long DEFAULT_WRITE_TIMEOUT_SECONDS = 30;
+    private static final long DEFAULT_GZIP_MIN_BYTES = 4096;
+    
+    private static volatile OkHttpClient sharedClient;
+    
+    private int maxIdleConnections = DEFAULT_MAX_IDLE_CONNECTIONS;
+    private long keepAliveSeconds = DEFAULT_KEEP_ALIVE_SECONDS;
+    private int maxRequests = DEFAULT_MAX_REQUESTS;
+    private int maxRequestsPerHost = DEFAULT_MAX_REQUESTS_PER_HOST;
+    private long connectTimeoutSeconds = DEFAULT_CONNECT_TIMEOUT_SECONDS;
+    private long readTimeoutSeconds = DEFAULT_READ_TIMEOUT_SECONDS;
+    private long writeTimeoutSeconds = DEFAULT_WRITE_TIMEOUT_SECONDS;
+    
+    // 请求体gzip需要服务端（nginx/Odoo）能解压请求体，默认关闭
+    private boolean gzipRequests = false;
+    private long gzipMinBytes = DEFAULT_GZIP_MIN_BYTES;
+    
+    /**
+     * 获取共享客户端（默认配置）
+     */
+    public static OkHttpClient getSharedClient() {
+        OkHttpClient client = sharedClient;
+        if (client == null) {
+            synchronized (OdooHttpConfig.class) {
+                client = sharedClient;
+                if (client == null) {
+                    client = new OdooHttpConfig().buildClient();
+                    sharedClient = client;
+                }
+            }
+        }
+        return client;
+    }
+    
+    /**
+     * 以自定义配置替换共享客户端，需在首次创建OdooApiClient之前调用
+     */
+    public static synchronized void installSharedClient(OdooHttpConfig config) {
+        sharedClient = config.buildClient();
+    }
+    
+    /**
+     * 根据当前配置构建客户端
+     */
+    public OkHttpClient buildClient() {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxRequests);
+        dispatcher.setMaxRequestsPerHost(maxRequestsPerHost);
+        
+        // BODY级别会把整个响应体读入内存，破坏流式解析，这里只记录请求头；
+        // 会话cookie不写入日志，发布版不记录
+        HttpLoggingInterceptor logging = new HttpLoggingInterceptor();
+        logging.setLevel(BuildConfig.DEBUG
+                ? HttpLoggingInterceptor.Level.HEADERS
+                : HttpLoggingInterceptor.Level.NONE);
+        logging.redactHeader("Cookie");
+        logging.redactHeader("Set-Cookie");
+        
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveSeconds, TimeUnit.SECONDS))
+                .dispatcher(dispatcher)
+                .protocols(Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectTimeout(connectTimeoutSeconds, TimeUnit.SECONDS)
+                .readTimeout(readTimeoutSeconds, TimeUnit.SECONDS)
+                .writeTimeout(writeTimeoutSeconds, TimeUnit.SECONDS)
+                .retryOnConnectionFailure(true);
+        
+        if (gzipRequests) {
+            builder.addInterceptor(new GzipRequestInterceptor(gzipMinBytes));
+        }
+        builder.addInterceptor(logging);
+        
+        return builder.build();
+    }
+    
+    // Setters
+    public OdooHttpConfig setConnectionPool(int maxIdleConnections, long keepAliveSeconds) {
+        this.maxIdleConnections = maxIdleConnections;
+        this.keepAliveSeconds = keepAliveSeconds;
+        return this;
+    }
+    
+    public OdooHttpConfig setMaxRequests(int maxRequests, int maxRequestsPerHost) {
+        this.maxRequests = maxRequests;
+        this.maxRequestsPerHost = maxRequestsPerHost;
+        return this;
+    }
+    
+    public OdooHttpConfig setTimeouts(long connectSeconds, long readSeconds, long writeSeconds) {
+        this.connectTimeoutSeconds = connectSeconds;
+        this.readTimeoutSeconds = readSeconds;
+        this.writeTimeoutSeconds = writeSeconds;
+        return this;
+    }
+    
+    public OdooHttpConfig setGzipRequests(boolean enabled, long minBytes) {
+        this.gzipRequests = enabled;
+        this.gzipMinBytes = minBytes;
+        return this;
+    }
+    
+    /**
+     * 请求体gzip压缩拦截器
+     * 只压缩超过阈值的请求体（如批量create），小请求压缩收益不抵CPU开销
+     */
+    static class GzipRequestInterceptor implements Interceptor {
+        
+        private final long minBytes;
+        
+        GzipRequestInterceptor(long minBytes) {
+            this.minBytes = minBytes;
+        }
+        
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            Request original = chain.request();
+            RequestBody body = original.body();
+            
+            if (body == null || original.header("Content-Encoding") != null
+                    || body.contentLength() < minBytes) {
+                return chain.proceed(original);
+            }
+            
+            Buffer compressed = new Buffer();
+            BufferedSink gzipSink = Okio.buffer(new GzipSink(compressed));
+            body.writeTo(gzipSink);
+            gzipSink.close();
+            
+            Request gzipped = original.newBuilder()
+                    .header("Content-Encoding", "gzip")
+                    .method(original.method(), RequestBody.create(body.contentType(), compressed.readByteString()))
+                    .build();
+            
+            return chain.proceed(gzipped);
+        }
+    }
+}
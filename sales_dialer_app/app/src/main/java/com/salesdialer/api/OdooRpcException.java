@@ -0,0 +1,89 @@
+package com.salesdialer.api;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Odoo JSON-RPC错误
+ * Odoo的业务错误以HTTP 200返回，响应中带error对象而没有result：
+ *
+ * <pre>
+ * {"error": {"code": 100, "message": "Odoo Session Expired",
+ *            "data": {"name": "odoo.http.SessionExpiredException", "message": "Session expired"}}}
+ * </pre>
+ */
+public class OdooRpcException extends Exception {
+    
+    // Odoo对会话失效使用的错误码
+    private static final int CODE_SESSION_EXPIRED = 100;
+    private static final String SESSION_EXPIRED_EXCEPTION = "SessionExpiredException";
+    // 业务异常（AccessError、MissingError、ValidationError、UserError等）所在的模块
+    private static final String BUSINESS_EXCEPTION_PREFIX = "odoo.exceptions.";
+    
+    private final int code;
+    private final String name;
+    
+    public OdooRpcException(int code, String name, String message) {
+        super(message);
+        this.code = code;
+        this.name = name;
+    }
+    
+    /**
+     * 从响应的error对象解析
+     */
+    public static OdooRpcException from(JsonObject error) {
+        int code = getInt(error, "code");
+        String message = getString(error, "message");
+        String name = null;
+        
+        JsonElement data = error.get("data");
+        if (data != null && data.isJsonObject()) {
+            JsonObject dataObj = data.getAsJsonObject();
+            name = getString(dataObj, "name");
+            // data.message是具体原因（如字段校验失败的提示），比外层的"Odoo Server Error"更有用
+            String detail = getString(dataObj, "message");
+            if (detail != null && !detail.isEmpty()) {
+                message = detail;
+            }
+        }
+        return new OdooRpcException(code, name, message != null ? message : "Odoo error " + code);
+    }
+    
+    /**
+     * 会话已失效，需要重新登录
+     */
+    public boolean isSessionExpired() {
+        return code == CODE_SESSION_EXPIRED
+                || (name != null && name.endsWith(SESSION_EXPIRED_EXCEPTION));
+    }
+    
+    /**
+     * 服务器拒绝了请求本身（无权限、记录不存在、校验失败等），原样重试不会成功
+     */
+    public boolean isPermanent() {
+        return name != null && name.startsWith(BUSINESS_EXCEPTION_PREFIX);
+    }
+    
+    public int getCode() {
+        return code;
+    }
+    
+    /**
+     * 服务器端异常类名，如 odoo.exceptions.AccessError
+     */
+    public String getName() {
+        return name;
+    }
+    
+    private static int getInt(JsonObject object, String key) {
+        JsonElement element = object.get(key);
+        return element != null && element.isJsonPrimitive() && element.getAsJsonPrimitive().isNumber()
+                ? element.getAsInt() : 0;
+    }
+    
+    private static String getString(JsonObject object, String key) {
+        JsonElement element = object.get(key);
+        return element != null && element.isJsonPrimitive() ? element.getAsString() : null;
+    }
+}
@@ -0,0 +1,245 @@
+package com.salesdialer.api;
+
+import android.util.Log;
+
+import com.google.gson.JsonArray;
+import com.salesdialer.model.Customer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import okhttp3.Call;
+
+/**
+ * 并行分页拉取器
+ * 先search_count得到总数，再同时发出最多parallelism个分页请求，按页序重新排列后依次交给PageSink
+ *
+ * <p>只允许领先于当前待交付页parallelism页以内的请求在途，
+ * 因此即使第一页很慢，缓存的乱序页也不会超过parallelism页。</p>
+ */
+public class ParallelPageFetcher {
+    
+    private static final String TAG = "ParallelPageFetcher";
+    private static final int COUNT_KEY = -1; // search_count请求在inFlight中的键，分页请求以页序为键
+    
+    /**
+     * 按页序接收结果，串行调用（不会并发），调用线程为OkHttp工作线程
+     */
+    public interface PageSink {
+        void onPage(int pageIndex, List<Customer> customers) throws Exception;
+    }
+    
+    private final OdooApiClient apiClient;
+    private final int parallelism;
+    private final int pageSize;
+    
+    public ParallelPageFetcher(OdooApiClient apiClient, int parallelism, int pageSize) {
+        this.apiClient = apiClient;
+        this.parallelism = Math.max(1, parallelism);
+        this.pageSize = pageSize;
+    }
+    
+    /**
+     * 开始拉取
+     * order需要是稳定排序（如 "id asc"），否则并行的offset分页之间可能重复或遗漏
+     *
+     * @param callback 全部页交付完成后回调总条数；任一页失败或被取消则回调onFailure
+     * @return 可取消的拉取任务
+     */
+    public Fetch fetchCustomers(JsonArray domain, String order, PageSink sink, OdooCallback<Integer> callback) {
+        Fetch fetch = new Fetch(domain, order, sink, callback);
+        fetch.start();
+        return fetch;
+    }
+    
+    /**
+     * 一次并行拉取任务
+     */
+    public class Fetch {
+        
+        private final JsonArray domain;
+        private final String order;
+        private final PageSink sink;
+        private final OdooCallback<Integer> callback;
+        
+        // 在途请求，完成后立即移除；回调可能先于track()到达，此时记入settledEarly，track()时不再加入
+        private final Map<Integer, Call> inFlight = new HashMap<>();
+        private final Set<Integer> settledEarly = new HashSet<>();
+        private final Map<Integer, List<Customer>> completed = new HashMap<>();
+        
+        private int pageCount;
+        private int nextToRequest = 0;
+        private int nextToDeliver = 0;
+        private int delivered = 0;
+        private boolean finished = false;
+        
+        Fetch(JsonArray domain, String order, PageSink sink, OdooCallback<Integer> callback) {
+            this.domain = domain;
+            this.order = order;
+            this.sink = sink;
+            this.callback = callback;
+        }
+        
+        /**
+         * 取消所有在途请求
+         */
+        public void cancel() {
+            fail(new Exception("Fetch cancelled"));
+        }
+        
+        public synchronized boolean isFinished() {
+            return finished;
+        }
+        
+        private void start() {
+            Call countCall = apiClient.countCustomersAsync(domain, new OdooCallback<Integer>() {
+                @Override
+                public void onSuccess(Integer total) {
+                    untrack(COUNT_KEY);
+                    int pages = (total + pageSize - 1) / pageSize;
+                    synchronized (Fetch.this) {
+                        pageCount = pages;
+                    }
+                    Log.d(TAG, "Fetching " + total + " customers in " + pages + " pages");
+                    if (pages == 0) {
+                        finish();
+                    } else {
+                        requestMore();
+                    }
+                }
+                
+                @Override
+                public void onFailure(Exception e) {
+                    fail(e);
+                }
+            });
+            track(COUNT_KEY, countCall);
+        }
+        
+        /**
+         * 在并发窗口内补发请求
+         */
+        private void requestMore() {
+            while (true) {
+                final int page;
+                synchronized (this) {
+                    if (finished || nextToRequest >= pageCount
+                            || nextToRequest >= nextToDeliver + parallelism) {
+                        return;
+                    }
+                    page = nextToRequest++;
+                }
+                
+                Call call = apiClient.searchCustomersAsync(domain, order, pageSize, page * pageSize,
+                        new OdooCallback<List<Customer>>() {
+                            @Override
+                            public void onSuccess(List<Customer> customers) {
+                                untrack(page);
+                                onPageLoaded(page, customers);
+                            }
+                            
+                            @Override
+                            public void onFailure(Exception e) {
+                                fail(e);
+                            }
+                        });
+                track(page, call);
+            }
+        }
+        
+        /**
+         * 页到达后按顺序交付所有已连续的页
+         */
+        private void onPageLoaded(int page, List<Customer> customers) {
+            boolean done;
+            Exception sinkError = null;
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                completed.put(page, customers);
+                
+                try {
+                    List<Customer> next;
+                    while ((next = completed.remove(nextToDeliver)) != null) {
+                        sink.onPage(nextToDeliver, next);
+                        delivered += next.size();
+                        nextToDeliver++;
+                    }
+                } catch (Exception e) {
+                    Log.e(TAG, "Page sink failed: " + e.getMessage());
+                    sinkError = e;
+                }
+                done = nextToDeliver >= pageCount;
+            }
+            
+            if (sinkError != null) {
+                fail(sinkError);
+            } else if (done) {
+                finish();
+            } else {
+                requestMore();
+            }
+        }
+        
+        private void track(int key, Call call) {
+            synchronized (this) {
+                if (!finished) {
+                    if (!settledEarly.remove(key)) {
+                        inFlight.put(key, call);
+                    }
+                    return;
+                }
+            }
+            call.cancel();
+        }
+        
+        /**
+         * 请求已完成，不再需要取消
+         */
+        private synchronized void untrack(int key) {
+            if (!finished && inFlight.remove(key) == null) {
+                settledEarly.add(key);
+            }
+        }
+        
+        private void finish() {
+            int total;
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                inFlight.clear();
+                settledEarly.clear();
+                total = delivered;
+            }
+            callback.onSuccess(total);
+        }
+        
+        /**
+         * 结束任务并取消其余在途请求
+         */
+        private void fail(Exception e) {
+            List<Call> calls;
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                completed.clear();
+                calls = new ArrayList<>(inFlight.values());
+                inFlight.clear();
+                settledEarly.clear();
+            }
+            for (Call call : calls) {
+                call.cancel();
+            }
+            callback.onFailure(e);
+        }
+    }
+}
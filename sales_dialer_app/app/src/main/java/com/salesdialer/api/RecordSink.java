@@ -0,0 +1,13 @@
+package com.salesdialer.api;
+
+/**
+ * 记录接收器
+ * 流式解析时逐条接收记录，避免整页结果同时驻留内存
+ */
+public interface RecordSink<T> {
+    
+    /**
+     * 接收一条已解析的记录
+     */
+    void accept(T record) throws Exception;
+}
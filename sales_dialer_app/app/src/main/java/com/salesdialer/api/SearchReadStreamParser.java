@@ -0,0 +1,52 @@
+package com.salesdialer.api;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * search_read响应流式解析器
+ * 直接在响应流上逐条绑定result数组中的记录，不构建完整的JSON树
+ */
+final class SearchReadStreamParser {
+    
+    private SearchReadStreamParser() {
+    }
+    
+    /**
+     * 解析JSON-RPC响应，将result数组中的每条记录交给sink
+     *
+     * @return 解析出的记录数
+     * @throws OdooRpcException 响应为error对象（此时没有result，sink未收到任何记录）
+     */
+    static <T> int parse(JsonReader reader, TypeAdapter<T> adapter, RecordSink<T> sink) throws Exception {
+        int count = 0;
+        
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if ("result".equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    sink.accept(adapter.read(reader));
+                    count++;
+                }
+                reader.endArray();
+            } else if ("error".equals(name)) {
+                JsonElement error = JsonParser.parseReader(reader);
+                if (error.isJsonObject()) {
+                    throw OdooRpcException.from(error.getAsJsonObject());
+                }
+                throw new OdooRpcException(0, null, "Odoo error: " + error);
+            } else {
+                // jsonrpc、id等其余字段直接跳过
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        
+        return count;
+    }
+}
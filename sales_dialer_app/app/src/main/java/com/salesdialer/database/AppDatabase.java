@@ -0,0 +1,55 @@
+package com.salesdialer.database;
+
+import android.content.Context;
+
+import androidx.room.Database;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+import androidx.room.TypeConverters;
+
+import com.salesdialer.model.CallRecord;
+import com.salesdialer.model.Customer;
+import com.salesdialer.model.CustomerCallStats;
+import com.salesdialer.model.DialSession;
+import com.salesdialer.model.DialSessionChange;
+import com.salesdialer.model.FollowUp;
+import com.salesdialer.model.OutboxOperation;
+
+/**
+ * 本地Room数据库
+ */
+@Database(entities = {Customer.class, FollowUp.class, OutboxOperation.class, DialSession.class,
+        DialSessionChange.class, CallRecord.class, CustomerCallStats.class},
+        version = 1, exportSchema = false)
+@TypeConverters(Converters.class)
+public abstract class AppDatabase extends RoomDatabase {
+    
+    private static final String DATABASE_NAME = "sales_dialer.db";
+    private static volatile AppDatabase instance;
+    
+    public abstract CustomerDao customerDao();
+    
+    public abstract FollowUpDao followUpDao();
+    
+    public abstract OutboxDao outboxDao();
+    
+    public abstract DialSessionDao dialSessionDao();
+    
+    public abstract CallLogDao callLogDao();
+    
+    public static AppDatabase getInstance(Context context) {
+        AppDatabase result = instance;
+        if (result == null) {
+            synchronized (AppDatabase.class) {
+                result = instance;
+                if (result == null) {
+                    result = Room.databaseBuilder(context.getApplicationContext(),
+                                    AppDatabase.class, DATABASE_NAME)
+                            .build();
+                    instance = result;
+                }
+            }
+        }
+        return result;
+    }
+}
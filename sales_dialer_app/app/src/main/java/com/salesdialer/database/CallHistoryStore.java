@@ -0,0 +1,136 @@
+package com.salesdialer.database;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.salesdialer.model.AnswerRateBucket;
+import com.salesdialer.model.CallRecord;
+import com.salesdialer.model.Customer;
+import com.salesdialer.model.CustomerCallStats;
+import com.salesdialer.service.strategy.AnswerRateStats;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 客户通话历史
+ * 首次使用时把customer_call_stats整体读入内存，之后按客户id O(1)查询，
+ * 同时把call_logs按等级和小时汇总写入AnswerRateStats，进程重启后接通率统计不会从零开始；
+ * 每次通话先更新内存汇总，再在后台写入call_logs、customer_call_stats和customers表
+ *
+ * <p>ensureLoaded()会访问数据库，不要在主线程首次调用。</p>
+ */
+public class CallHistoryStore {
+    
+    private static final String TAG = "CallHistoryStore";
+    
+    private static CallHistoryStore instance;
+    
+    private final CallLogDao callLogDao;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final ConcurrentHashMap<Integer, CustomerCallStats> stats = new ConcurrentHashMap<>();
+    private volatile boolean loaded = false;
+    
+    private CallHistoryStore(Context context) {
+        this.callLogDao = AppDatabase.getInstance(context).callLogDao();
+    }
+    
+    public static synchronized CallHistoryStore getInstance(Context context) {
+        if (instance == null) {
+            instance = new CallHistoryStore(context);
+        }
+        return instance;
+    }
+    
+    /**
+     * 加载全部汇总到内存，只执行一次
+     */
+    public void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            List<CustomerCallStats> all = callLogDao.getAllStats();
+            for (CustomerCallStats item : all) {
+                // 加载前已记录的通话以内存中的为准
+                stats.putIfAbsent(item.getCustomerId(), item);
+            }
+            // 本次进程的通话在写入call_logs之前都会先调用ensureLoaded()，因此不会重复计入
+            AnswerRateStats answerRates = AnswerRateStats.getInstance();
+            for (AnswerRateBucket bucket : callLogDao.getAnswerRateBuckets()) {
+                answerRates.add(bucket.getLevel(), bucket.getHour(), bucket.getAttempts(), bucket.getAnswers());
+            }
+            loaded = true;
+            Log.d(TAG, "Loaded call stats for " + all.size() + " customers");
+        }
+    }
+    
+    /**
+     * 客户通话汇总，没有拨打记录时返回null
+     */
+    public CustomerCallStats getStats(int customerId) {
+        ensureLoaded();
+        return stats.get(customerId);
+    }
+    
+    /**
+     * 记录一次拨打
+     *
+     * @param talkSeconds 通话时长，未接通为0
+     */
+    public void recordCall(Customer customer, long dialTime, boolean answered, int talkSeconds) {
+        record(customer, new CallRecord(customer.getId(), dialTime, answered, answered ? talkSeconds : 0));
+    }
+    
+    /**
+     * 记录一次无法确定是否接通的拨打，只更新最后拨打时间和拨打次数
+     */
+    public void recordUnknownCall(Customer customer, long dialTime) {
+        record(customer, new CallRecord(customer.getId(), dialTime, false, CallRecord.TALK_UNKNOWN));
+    }
+    
+    private void record(Customer customer, CallRecord record) {
+        ensureLoaded();
+        CustomerCallStats current = stats.get(customer.getId());
+        CustomerCallStats updated = new CustomerCallStats(customer.getId());
+        if (current != null) {
+            updated.setLastCallTime(current.getLastCallTime());
+            updated.setAttempts(current.getAttempts());
+            updated.setAnsweredCount(current.getAnsweredCount());
+            updated.setTotalTalkSeconds(current.getTotalTalkSeconds());
+        }
+        updated.add(record);
+        stats.put(customer.getId(), updated);
+        
+        customer.setLastCallTime(updated.getLastCallTime());
+        customer.setCallCount(updated.getAttempts());
+        
+        executor.execute(() -> {
+            try {
+                callLogDao.recordCall(record);
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to record call: " + e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * 用本地汇总填充客户的最后拨打时间和拨打次数
+     * 从服务器拉取的客户没有这两个本地字段，排序前调用
+     */
+    public void applyTo(List<Customer> customers) {
+        ensureLoaded();
+        for (Customer customer : customers) {
+            CustomerCallStats item = stats.get(customer.getId());
+            if (item != null) {
+                customer.setLastCallTime(item.getLastCallTime());
+                customer.setCallCount(item.getAttempts());
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.salesdialer.database;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.salesdialer.model.AnswerRateBucket;
+import com.salesdialer.model.CallRecord;
+import com.salesdialer.model.CustomerCallStats;
+
+import java.util.List;
+
+/**
+ * 通话记录和客户通话汇总数据访问对象
+ */
+@Dao
+public abstract class CallLogDao {
+    
+    @Insert
+    public abstract long insertCallRecord(CallRecord record);
+    
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    public abstract void saveStats(CustomerCallStats stats);
+    
+    @Query("SELECT * FROM customer_call_stats WHERE customer_id = :customerId")
+    public abstract CustomerCallStats getStats(int customerId);
+    
+    @Query("SELECT * FROM customer_call_stats")
+    public abstract List<CustomerCallStats> getAllStats();
+    
+    @Query("SELECT * FROM call_logs WHERE customer_id = :customerId ORDER BY dial_time DESC LIMIT :limit")
+    public abstract List<CallRecord> getRecentCalls(int customerId, int limit);
+    
+    @Query("SELECT * FROM call_logs ORDER BY dial_time DESC LIMIT :limit")
+    public abstract List<CallRecord> getLatestCalls(int limit);
+    
+    /**
+     * 按客户等级和拨打时的本地小时汇总接通结果已知的通话记录
+     */
+    @Query("SELECT c.level AS level, "
+            + "CAST(strftime('%H', l.dial_time / 1000, 'unixepoch', 'localtime') AS INTEGER) AS hour, "
+            + "COUNT(*) AS attempts, SUM(l.answered) AS answers "
+            + "FROM call_logs l LEFT JOIN customers c ON c.id = l.customer_id "
+            + "WHERE l.talk_seconds >= 0 "
+            + "GROUP BY c.level, hour")
+    public abstract List<AnswerRateBucket> getAnswerRateBuckets();
+    
+    @Query("UPDATE customers SET last_call_time = :lastCallTime, call_count = :callCount WHERE id = :customerId")
+    public abstract void updateCustomerCallInfo(int customerId, long lastCallTime, int callCount);
+    
+    /**
+     * 追加通话记录并增量更新汇总，同时回写customers表的最后拨打时间和拨打次数
+     *
+     * @return 更新后的汇总
+     */
+    @Transaction
+    public CustomerCallStats recordCall(CallRecord record) {
+        insertCallRecord(record);
+        
+        CustomerCallStats stats = getStats(record.getCustomerId());
+        if (stats == null) {
+            stats = new CustomerCallStats(record.getCustomerId());
+        }
+        stats.add(record);
+        saveStats(stats);
+        
+        updateCustomerCallInfo(stats.getCustomerId(), stats.getLastCallTime(), stats.getAttempts());
+        return stats;
+    }
+}
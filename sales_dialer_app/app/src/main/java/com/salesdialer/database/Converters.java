@@ -0,0 +1,55 @@
+package com.salesdialer.database;
+
+import androidx.room.TypeConverter;
+
+import com.salesdialer.model.CustomerLevel;
+import com.salesdialer.model.CustomerStatus;
+import com.salesdialer.model.CustomerType;
+import com.salesdialer.model.FollowUpResult;
+
+/**
+ * Room类型转换
+ * selection枚举按Odoo取值存储，列内容与之前的字符串一致，SQL中的等级排序和状态过滤不受影响
+ */
+public class Converters {
+    
+    @TypeConverter
+    public static String fromLevel(CustomerLevel level) {
+        return level != null ? level.getCode() : null;
+    }
+    
+    @TypeConverter
+    public static CustomerLevel toLevel(String code) {
+        return CustomerLevel.fromCode(code);
+    }
+    
+    @TypeConverter
+    public static String fromStatus(CustomerStatus status) {
+        return status != null ? status.getCode() : null;
+    }
+    
+    @TypeConverter
+    public static CustomerStatus toStatus(String code) {
+        return CustomerStatus.fromCode(code);
+    }
+    
+    @TypeConverter
+    public static String fromCustomerType(CustomerType type) {
+        return type != null ? type.getCode() : null;
+    }
+    
+    @TypeConverter
+    public static CustomerType toCustomerType(String code) {
+        return CustomerType.fromCode(code);
+    }
+    
+    @TypeConverter
+    public static String fromResult(FollowUpResult result) {
+        return result != null ? result.getCode() : null;
+    }
+    
+    @TypeConverter
+    public static FollowUpResult toResult(String code) {
+        return FollowUpResult.fromCode(code);
+    }
+}
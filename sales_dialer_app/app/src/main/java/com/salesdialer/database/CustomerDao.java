@@ -0,0 +1,148 @@
+package com.salesdialer.database;
+
+import androidx.paging.PagingSource;
+import androidx.room.Dao;
+import androidx.room.Delete;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+import androidx.room.Update;
+
+import com.salesdialer.model.Customer;
+import com.salesdialer.model.CustomerLevel;
+import com.salesdialer.model.CustomerStatus;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 客户数据访问对象
+ */
+@Dao
+public abstract class CustomerDao {
+    
+    @Query("SELECT * FROM customers ORDER BY write_date ASC")
+    public abstract List<Customer> getAllCustomers();
+    
+    @Query("SELECT COUNT(*) FROM customers")
+    public abstract int getCustomerCount();
+    
+    @Query("SELECT * FROM customers WHERE id = :customerId")
+    public abstract Customer getCustomerById(int customerId);
+    
+    @Query("SELECT * FROM customers WHERE id IN (:customerIds)")
+    public abstract List<Customer> getCustomersByIds(int[] customerIds);
+    
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    public abstract void insertCustomers(List<Customer> customers);
+    
+    @Update
+    public abstract void updateCustomer(Customer customer);
+    
+    @Delete
+    public abstract void deleteCustomer(Customer customer);
+    
+    @Query("SELECT * FROM customers WHERE is_synced = 0")
+    public abstract List<Customer> getUnsyncedCustomers();
+    
+    @Query("UPDATE customers SET is_synced = :synced WHERE id IN (:customerIds)")
+    public abstract void setSynced(int[] customerIds, boolean synced);
+    
+    @Query("UPDATE customers SET last_call_time = :lastCallTime, call_count = :callCount WHERE id = :customerId")
+    public abstract void updateCallInfo(int customerId, long lastCallTime, int callCount);
+    
+    /**
+     * 拨号队列的客户id快照（排序同pageDialQueue）
+     */
+    @Query("SELECT id FROM customers WHERE (status IS NULL OR status != 'invalid') "
+            + "ORDER BY level IS NULL, level ASC, last_call_time ASC")
+    public abstract List<Integer> getDialQueueIds();
+    
+    @Query("SELECT id FROM customers WHERE (status IS NULL OR status != 'invalid') AND owner_id = :ownerId "
+            + "ORDER BY level IS NULL, level ASC, last_call_time ASC")
+    public abstract List<Integer> getDialQueueIdsByOwner(int ownerId);
+    
+    // ==================== 分页查询 ====================
+    
+    /**
+     * 客户列表（按最近更新倒序）
+     */
+    @Query("SELECT * FROM customers ORDER BY write_date DESC")
+    public abstract PagingSource<Integer, Customer> pageAll();
+    
+    /**
+     * 按等级筛选的客户列表
+     */
+    @Query("SELECT * FROM customers WHERE level = :level ORDER BY write_date DESC")
+    public abstract PagingSource<Integer, Customer> pageByLevel(CustomerLevel level);
+    
+    /**
+     * 按状态筛选的客户列表
+     */
+    @Query("SELECT * FROM customers WHERE status = :status ORDER BY write_date DESC")
+    public abstract PagingSource<Integer, Customer> pageByStatus(CustomerStatus status);
+    
+    /**
+     * 某个归属人的客户列表
+     */
+    @Query("SELECT * FROM customers WHERE owner_id = :ownerId ORDER BY write_date DESC")
+    public abstract PagingSource<Integer, Customer> pageByOwner(int ownerId);
+    
+    /**
+     * 按姓名或手机号搜索
+     */
+    @Query("SELECT * FROM customers WHERE name LIKE '%' || :query || '%' OR phone LIKE :query || '%' "
+            + "ORDER BY write_date DESC")
+    public abstract PagingSource<Integer, Customer> search(String query);
+    
+    /**
+     * 拨号队列：排除无效客户，等级优先，同等级下最久未拨打的优先
+     * 未知状态、未知等级（列值为NULL）的客户不排除，排在所有已分级客户之后
+     */
+    @Query("SELECT * FROM customers WHERE (status IS NULL OR status != 'invalid') "
+            + "ORDER BY level IS NULL, level ASC, last_call_time ASC")
+    public abstract PagingSource<Integer, Customer> pageDialQueue();
+    
+    /**
+     * 拨号队列：仅包含指定归属人的客户
+     */
+    @Query("SELECT * FROM customers WHERE (status IS NULL OR status != 'invalid') AND owner_id = :ownerId "
+            + "ORDER BY level IS NULL, level ASC, last_call_time ASC")
+    public abstract PagingSource<Integer, Customer> pageDialQueueByOwner(int ownerId);
+    
+    /**
+     * 合并服务器下发的客户记录
+     * 服务器字段整体覆盖，本地字段（最后拨打时间、拨打次数）保留；
+     * 本地有未上传修改的客户保持本地版本，待发件箱上传后由下次增量同步带回
+     */
+    @Transaction
+    public void mergeFromServer(List<Customer> customers) {
+        int[] ids = new int[customers.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = customers.get(i).getId();
+        }
+        
+        Map<Integer, Customer> locals = new HashMap<>();
+        for (Customer local : getCustomersByIds(ids)) {
+            locals.put(local.getId(), local);
+        }
+        
+        List<Customer> merged = new ArrayList<>(customers.size());
+        for (Customer customer : customers) {
+            Customer local = locals.get(customer.getId());
+            if (local != null && !local.isSynced()) {
+                continue;
+            }
+            if (local != null) {
+                customer.setLastCallTime(local.getLastCallTime());
+                customer.setCallCount(local.getCallCount());
+            }
+            merged.add(customer);
+        }
+        
+        insertCustomers(merged);
+    }
+}
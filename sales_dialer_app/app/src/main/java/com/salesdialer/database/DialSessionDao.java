@@ -0,0 +1,73 @@
+package com.salesdialer.database;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.salesdialer.model.DialSession;
+import com.salesdialer.model.DialSessionChange;
+
+import java.util.List;
+
+/**
+ * 拨号会话检查点数据访问对象
+ */
+@Dao
+public abstract class DialSessionDao {
+    
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    public abstract void saveSession(DialSession session);
+    
+    @Query("SELECT * FROM dial_sessions WHERE id = 1")
+    public abstract DialSession getSession();
+    
+    /**
+     * 只更新游标和统计，每次拨打调用
+     */
+    @Query("UPDATE dial_sessions SET cursor = :cursor, current_index = :currentIndex, "
+            + "total_dialed = :totalDialed, success_count = :successCount, failed_count = :failedCount, "
+            + "updated_at = :updatedAt WHERE id = 1")
+    public abstract int updateProgress(int cursor, int currentIndex, int totalDialed,
+                                       int successCount, int failedCount, long updatedAt);
+    
+    @Insert
+    public abstract void insertChanges(List<DialSessionChange> changes);
+    
+    @Query("SELECT * FROM dial_session_changes ORDER BY seq ASC")
+    public abstract List<DialSessionChange> getChanges();
+    
+    @Query("DELETE FROM dial_session_changes")
+    public abstract void clearChanges();
+    
+    @Query("DELETE FROM dial_sessions")
+    public abstract void deleteSession();
+    
+    /**
+     * 写入完整检查点，之前追加的队列变化已包含在内，一并清空
+     */
+    @Transaction
+    public void replaceSession(DialSession session) {
+        clearChanges();
+        saveSession(session);
+    }
+    
+    /**
+     * 追加队列变化并更新游标和统计
+     */
+    @Transaction
+    public void appendProgress(List<DialSessionChange> changes, int cursor, int currentIndex, int totalDialed,
+                               int successCount, int failedCount, long updatedAt) {
+        if (!changes.isEmpty()) {
+            insertChanges(changes);
+        }
+        updateProgress(cursor, currentIndex, totalDialed, successCount, failedCount, updatedAt);
+    }
+    
+    @Transaction
+    public void clearSession() {
+        clearChanges();
+        deleteSession();
+    }
+}
@@ -0,0 +1,74 @@
+package com.salesdialer.database;
+
+import androidx.paging.PagingSource;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Update;
+
+import com.salesdialer.model.FollowUp;
+
+import java.util.List;
+
+/**
+ * 跟进记录数据访问对象
+ */
+@Dao
+public abstract class FollowUpDao {
+    
+    // 客户最近一条跟进记录；只有它的回访时间有效，之前的回访已被新的跟进取代
+    private static final String LATEST_OF_CUSTOMER = "local_id = (SELECT local_id FROM follow_ups "
+            + "WHERE customer_id = f.customer_id ORDER BY follow_time DESC, local_id DESC LIMIT 1)";
+    
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    public abstract long insertFollowUp(FollowUp followUp);
+    
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    public abstract void insertFollowUps(List<FollowUp> followUps);
+    
+    @Update
+    public abstract void updateFollowUp(FollowUp followUp);
+    
+    @Query("SELECT * FROM follow_ups WHERE local_id = :localId")
+    public abstract FollowUp getFollowUpByLocalId(int localId);
+    
+    @Query("SELECT * FROM follow_ups WHERE customer_id = :customerId ORDER BY follow_time DESC")
+    public abstract List<FollowUp> getFollowUpsByCustomer(int customerId);
+    
+    @Query("SELECT * FROM follow_ups WHERE customer_id = :customerId ORDER BY follow_time DESC")
+    public abstract PagingSource<Integer, FollowUp> pageByCustomer(int customerId);
+    
+    /**
+     * 回访时间在 (from, to] 内的跟进记录，按到期先后排序
+     */
+    @Query("SELECT * FROM follow_ups AS f WHERE next_follow_time > :from AND next_follow_time <= :to AND "
+            + LATEST_OF_CUSTOMER + " ORDER BY next_follow_time ASC")
+    public abstract List<FollowUp> getDueCallbacks(long from, long to);
+    
+    /**
+     * 晚于after的最早回访时间，没有时返回null
+     */
+    @Query("SELECT MIN(next_follow_time) FROM follow_ups AS f WHERE next_follow_time > :after AND "
+            + LATEST_OF_CUSTOMER)
+    public abstract Long getNextCallbackTime(long after);
+    
+    /**
+     * 待上传的跟进记录，失败次数达到maxAttempts的不再上传
+     */
+    @Query("SELECT * FROM follow_ups WHERE is_synced = 0 AND upload_attempts < :maxAttempts "
+            + "ORDER BY local_id ASC")
+    public abstract List<FollowUp> getUnsyncedFollowUps(int maxAttempts);
+    
+    @Query("SELECT COUNT(*) FROM follow_ups WHERE is_synced = 0 AND upload_attempts < :maxAttempts")
+    public abstract int getUnsyncedCount(int maxAttempts);
+    
+    @Query("UPDATE follow_ups SET upload_attempts = upload_attempts + 1 WHERE local_id IN (:localIds)")
+    public abstract void incrementUploadAttempts(int[] localIds);
+    
+    @Query("UPDATE follow_ups SET upload_attempts = :attempts WHERE local_id = :localId")
+    public abstract void setUploadAttempts(int localId, int attempts);
+    
+    @Query("UPDATE follow_ups SET id = :id, is_synced = 1 WHERE local_id = :localId")
+    public abstract void markSynced(int localId, int id);
+}
@@ -0,0 +1,46 @@
+package com.salesdialer.database;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+import androidx.room.Update;
+
+import com.salesdialer.model.OutboxOperation;
+
+import java.util.List;
+
+/**
+ * 发件箱数据访问对象
+ */
+@Dao
+public abstract class OutboxDao {
+    
+    @Insert
+    public abstract long insertOperation(OutboxOperation operation);
+    
+    @Update
+    public abstract void updateOperation(OutboxOperation operation);
+    
+    @Query("SELECT * FROM outbox WHERE type = :type AND target_id = :targetId")
+    public abstract OutboxOperation getOperation(String type, int targetId);
+    
+    @Query("SELECT * FROM outbox WHERE type = :type ORDER BY id ASC LIMIT :limit")
+    public abstract List<OutboxOperation> getPendingOperations(String type, int limit);
+    
+    @Query("SELECT COUNT(*) FROM outbox")
+    public abstract int getPendingCount();
+    
+    /**
+     * 删除上传成功的操作，上传期间又被合并过（version变化）的行保留
+     *
+     * @return 删除的行数
+     */
+    @Query("DELETE FROM outbox WHERE id = :id AND version = :version")
+    public abstract int deleteIfUnchanged(long id, int version);
+    
+    @Query("UPDATE outbox SET attempts = attempts + 1 WHERE id = :id")
+    public abstract void incrementAttempts(long id);
+    
+    @Query("DELETE FROM outbox WHERE id = :id")
+    public abstract void deleteOperation(long id);
+}
@@ -0,0 +1,46 @@
+package com.salesdialer.model;
+
+/**
+ * 按客户等级和拨打时本地小时汇总的拨打数、接通数
+ * call_logs聚合查询的结果，启动时用于初始化接通率统计
+ */
+public class AnswerRateBucket {
+    
+    private CustomerLevel level = CustomerLevel.UNKNOWN;  // 客户当前等级，客户不在本地时为UNKNOWN
+    private int hour;
+    private int attempts;
+    private int answers;
+    
+    // Getters and Setters
+    public CustomerLevel getLevel() {
+        return level;
+    }
+    
+    public void setLevel(CustomerLevel level) {
+        this.level = level != null ? level : CustomerLevel.UNKNOWN;
+    }
+    
+    public int getHour() {
+        return hour;
+    }
+    
+    public void setHour(int hour) {
+        this.hour = hour;
+    }
+    
+    public int getAttempts() {
+        return attempts;
+    }
+    
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+    
+    public int getAnswers() {
+        return answers;
+    }
+    
+    public void setAnswers(int answers) {
+        this.answers = answers;
+    }
+}
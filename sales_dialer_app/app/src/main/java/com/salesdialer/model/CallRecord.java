@@ -0,0 +1,96 @@
+package com.salesdialer.model;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * 本地通话记录
+ * 自动拨号每拨打一次追加一条，只存在本地
+ */
+@Entity(tableName = "call_logs",
+        indices = {
+                @Index("customer_id"),
+                @Index("dial_time")
+        })
+public class CallRecord {
+    
+    // 无法确定是否接通时的通话时长
+    public static final int TALK_UNKNOWN = -1;
+    
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+    
+    @ColumnInfo(name = "customer_id")
+    private int customerId;
+    
+    @ColumnInfo(name = "dial_time")
+    private long dialTime;
+    
+    private boolean answered;
+    
+    @ColumnInfo(name = "talk_seconds")
+    private int talkSeconds;
+    
+    // Constructors
+    public CallRecord() {
+    }
+    
+    @Ignore
+    public CallRecord(int customerId, long dialTime, boolean answered, int talkSeconds) {
+        this.customerId = customerId;
+        this.dialTime = dialTime;
+        this.answered = answered;
+        this.talkSeconds = talkSeconds;
+    }
+    
+    /**
+     * 是否已知接通结果，结果未知的记录只计入拨打次数，不参与接通率统计
+     */
+    public boolean isOutcomeKnown() {
+        return talkSeconds != TALK_UNKNOWN;
+    }
+    
+    // Getters and Setters
+    public long getId() {
+        return id;
+    }
+    
+    public void setId(long id) {
+        this.id = id;
+    }
+    
+    public int getCustomerId() {
+        return customerId;
+    }
+    
+    public void setCustomerId(int customerId) {
+        this.customerId = customerId;
+    }
+    
+    public long getDialTime() {
+        return dialTime;
+    }
+    
+    public void setDialTime(long dialTime) {
+        this.dialTime = dialTime;
+    }
+    
+    public boolean isAnswered() {
+        return answered;
+    }
+    
+    public void setAnswered(boolean answered) {
+        this.answered = answered;
+    }
+    
+    public int getTalkSeconds() {
+        return talkSeconds;
+    }
+    
+    public void setTalkSeconds(int talkSeconds) {
+        this.talkSeconds = talkSeconds;
+    }
+}
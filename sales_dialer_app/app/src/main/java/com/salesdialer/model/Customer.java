@@ -1,15 +1,32 @@
 package com.salesdialer.model;
 
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
+import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.annotations.SerializedName;
-import java.io.Serializable;
+import com.salesdialer.utils.OdooDateTime;
+import com.salesdialer.utils.OdooMany2one;
 
 /**
  * 客户模型
+ * 跨组件传递使用Parcelable；大队列应传递客户id（见AutoDialerService.EXTRA_CUSTOMER_IDS），
+ * 落盘快照使用ModelCodec
  */
-@Entity(tableName = "customers")
-public class Customer implements Serializable {
+@Entity(tableName = "customers",
+        indices = {
+                @Index("level"),
+                @Index("status"),
+                @Index("owner_id"),
+                @Index("last_call_time"),
+                @Index("is_synced")
+        })
+public class Customer implements Parcelable {
     
     @PrimaryKey
     @SerializedName("id")
@@ -22,16 +39,18 @@ public class Customer implements Serializable {
     private String phone;
     
     @SerializedName("wechat_name")
+    @ColumnInfo(name = "wechat_name")
     private String wechatName;
     
     @SerializedName("customer_type")
-    private String customerType;  // public, private
+    @ColumnInfo(name = "customer_type")
+    private CustomerType customerType = CustomerType.UNKNOWN;
     
     @SerializedName("level")
-    private String level;  // a, b, c, d
+    private CustomerLevel level = CustomerLevel.UNKNOWN;
     
     @SerializedName("status")
-    private String status;  // valid, pending, purchased, invalid
+    private CustomerStatus status = CustomerStatus.UNKNOWN;
     
     @SerializedName("requirement")
     private String requirement;
@@ -40,36 +59,114 @@ public class Customer implements Serializable {
     private String remark;
     
     @SerializedName("intended_property")
+    @ColumnInfo(name = "intended_property")
     private String intendedProperty;
     
     @SerializedName("owner_id")
+    @JsonAdapter(value = OdooMany2one.GsonAdapter.class, nullSafe = false)
+    @ColumnInfo(name = "owner_id")
     private int ownerId;
     
     @SerializedName("follow_count")
+    @ColumnInfo(name = "follow_count")
     private int followCount;
     
     @SerializedName("write_date")
-    private String writeDate;
+    @JsonAdapter(value = OdooDateTime.GsonAdapter.class, nullSafe = false)
+    @ColumnInfo(name = "write_date")
+    private long writeDate;  // UTC毫秒，0表示未知
     
     @SerializedName("create_date")
-    private String createDate;
+    @JsonAdapter(value = OdooDateTime.GsonAdapter.class, nullSafe = false)
+    @ColumnInfo(name = "create_date")
+    private long createDate;
     
     // 本地字段
+    @ColumnInfo(name = "is_synced")
     private boolean isSynced = true;
+    @ColumnInfo(name = "last_call_time")
     private long lastCallTime = 0;
+    @ColumnInfo(name = "call_count")
     private int callCount = 0;
+    @Ignore
     private boolean isDialing = false;
     
+    // 加载时使用的字段投影，非DETAIL的客户缺少大文本字段，需要时再补全
+    @Ignore
+    private transient CustomerFieldSet fieldSet = CustomerFieldSet.DETAIL;
+    
     // Constructors
     public Customer() {
     }
     
+    @Ignore
     public Customer(int id, String name, String phone) {
         this.id = id;
         this.name = name;
         this.phone = phone;
     }
     
+    @Ignore
+    protected Customer(Parcel in) {
+        id = in.readInt();
+        name = in.readString();
+        phone = in.readString();
+        wechatName = in.readString();
+        customerType = CustomerType.values()[in.readByte()];
+        level = CustomerLevel.values()[in.readByte()];
+        status = CustomerStatus.values()[in.readByte()];
+        requirement = in.readString();
+        remark = in.readString();
+        intendedProperty = in.readString();
+        ownerId = in.readInt();
+        followCount = in.readInt();
+        writeDate = in.readLong();
+        createDate = in.readLong();
+        isSynced = in.readByte() != 0;
+        lastCallTime = in.readLong();
+        callCount = in.readInt();
+        fieldSet = CustomerFieldSet.values()[in.readByte()];
+    }
+    
+    public static final Creator<Customer> CREATOR = new Creator<Customer>() {
+        @Override
+        public Customer createFromParcel(Parcel in) {
+            return new Customer(in);
+        }
+        
+        @Override
+        public Customer[] newArray(int size) {
+            return new Customer[size];
+        }
+    };
+    
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+    
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeInt(id);
+        dest.writeString(name);
+        dest.writeString(phone);
+        dest.writeString(wechatName);
+        dest.writeByte((byte) customerType.ordinal());
+        dest.writeByte((byte) level.ordinal());
+        dest.writeByte((byte) status.ordinal());
+        dest.writeString(requirement);
+        dest.writeString(remark);
+        dest.writeString(intendedProperty);
+        dest.writeInt(ownerId);
+        dest.writeInt(followCount);
+        dest.writeLong(writeDate);
+        dest.writeLong(createDate);
+        dest.writeByte((byte) (isSynced ? 1 : 0));
+        dest.writeLong(lastCallTime);
+        dest.writeInt(callCount);
+        dest.writeByte((byte) fieldSet.ordinal());
+    }
+    
     // Getters and Setters
     public int getId() {
         return id;
@@ -103,28 +200,28 @@ public class Customer implements Serializable {
         this.wechatName = wechatName;
     }
     
-    public String getCustomerType() {
+    public CustomerType getCustomerType() {
         return customerType;
     }
     
-    public void setCustomerType(String customerType) {
-        this.customerType = customerType;
+    public void setCustomerType(CustomerType customerType) {
+        this.customerType = customerType != null ? customerType : CustomerType.UNKNOWN;
     }
     
-    public String getLevel() {
+    public CustomerLevel getLevel() {
         return level;
     }
     
-    public void setLevel(String level) {
-        this.level = level;
+    public void setLevel(CustomerLevel level) {
+        this.level = level != null ? level : CustomerLevel.UNKNOWN;
     }
     
-    public String getStatus() {
+    public CustomerStatus getStatus() {
         return status;
     }
     
-    public void setStatus(String status) {
-        this.status = status;
+    public void setStatus(CustomerStatus status) {
+        this.status = status != null ? status : CustomerStatus.UNKNOWN;
     }
     
     public String getRequirement() {
@@ -167,19 +264,19 @@ public class Customer implements Serializable {
         this.followCount = followCount;
     }
     
-    public String getWriteDate() {
+    public long getWriteDate() {
         return writeDate;
     }
     
-    public void setWriteDate(String writeDate) {
+    public void setWriteDate(long writeDate) {
         this.writeDate = writeDate;
     }
     
-    public String getCreateDate() {
+    public long getCreateDate() {
         return createDate;
     }
     
-    public void setCreateDate(String createDate) {
+    public void setCreateDate(long createDate) {
         this.createDate = createDate;
     }
     
@@ -215,29 +312,49 @@ public class Customer implements Serializable {
         isDialing = dialing;
     }
     
+    public CustomerFieldSet getFieldSet() {
+        return fieldSet;
+    }
+    
+    public void setFieldSet(CustomerFieldSet fieldSet) {
+        this.fieldSet = fieldSet;
+    }
+    
+    public boolean isDetailLoaded() {
+        return fieldSet == CustomerFieldSet.DETAIL;
+    }
+    
+    /**
+     * 用完整记录补全精简客户的服务器字段，本地字段保持不变
+     */
+    public void applyDetail(Customer detail) {
+        this.name = detail.name;
+        this.phone = detail.phone;
+        this.wechatName = detail.wechatName;
+        this.customerType = detail.customerType;
+        this.level = detail.level;
+        this.status = detail.status;
+        this.requirement = detail.requirement;
+        this.remark = detail.remark;
+        this.intendedProperty = detail.intendedProperty;
+        this.ownerId = detail.ownerId;
+        this.followCount = detail.followCount;
+        this.writeDate = detail.writeDate;
+        this.createDate = detail.createDate;
+        this.fieldSet = CustomerFieldSet.DETAIL;
+    }
+    
     // Helper methods
     public String getLevelText() {
-        switch (level) {
-            case "a": return "A级（重要）";
-            case "b": return "B级（一般）";
-            case "c": return "C级（待开发）";
-            case "d": return "D级（长期维护）";
-            default: return "未知";
-        }
+        return level.getText();
     }
     
     public String getStatusText() {
-        switch (status) {
-            case "valid": return "有效";
-            case "pending": return "暂缓";
-            case "purchased": return "已购";
-            case "invalid": return "无效";
-            default: return "未知";
-        }
+        return status.getText();
     }
     
     public String getCustomerTypeText() {
-        return "private".equals(customerType) ? "私客" : "公客";
+        return customerType.getText();
     }
     
     public boolean isValidPhone() {
@@ -246,13 +363,7 @@ public class Customer implements Serializable {
     
     public int getPriority() {
         // 根据客户等级返回优先级（数字越小优先级越高）
-        switch (level) {
-            case "a": return 1;
-            case "b": return 2;
-            case "c": return 3;
-            case "d": return 4;
-            default: return 999;
-        }
+        return level.getPriority();
     }
     
     @Override
@@ -261,8 +372,8 @@ public class Customer implements Serializable {
                 "id=" + id +
                 ", name='" + name + '\'' +
                 ", phone='" + phone + '\'' +
-                ", level='" + level + '\'' +
-                ", status='" + status + '\'' +
+                ", level='" + level.getCode() + '\'' +
+                ", status='" + status.getCode() + '\'' +
                 '}';
     }
 }
@@ -0,0 +1,98 @@
+package com.salesdialer.model;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.PrimaryKey;
+
+/**
+ * 客户通话汇总
+ * 每次通话增量更新，避免对call_logs做聚合查询
+ */
+@Entity(tableName = "customer_call_stats")
+public class CustomerCallStats {
+    
+    @PrimaryKey
+    @ColumnInfo(name = "customer_id")
+    private int customerId;
+    
+    @ColumnInfo(name = "last_call_time")
+    private long lastCallTime;
+    
+    private int attempts;
+    
+    @ColumnInfo(name = "answered_count")
+    private int answeredCount;
+    
+    @ColumnInfo(name = "total_talk_seconds")
+    private long totalTalkSeconds;
+    
+    // Constructors
+    public CustomerCallStats() {
+    }
+    
+    @Ignore
+    public CustomerCallStats(int customerId) {
+        this.customerId = customerId;
+    }
+    
+    /**
+     * 计入一次通话，结果未知的通话只计入拨打次数
+     */
+    public void add(CallRecord record) {
+        lastCallTime = Math.max(lastCallTime, record.getDialTime());
+        attempts++;
+        if (record.isAnswered()) {
+            answeredCount++;
+            totalTalkSeconds += record.getTalkSeconds();
+        }
+    }
+    
+    /**
+     * 接通率，没有拨打记录时返回-1
+     */
+    public double getAnswerRate() {
+        return attempts > 0 ? answeredCount / (double) attempts : -1;
+    }
+    
+    // Getters and Setters
+    public int getCustomerId() {
+        return customerId;
+    }
+    
+    public void setCustomerId(int customerId) {
+        this.customerId = customerId;
+    }
+    
+    public long getLastCallTime() {
+        return lastCallTime;
+    }
+    
+    public void setLastCallTime(long lastCallTime) {
+        this.lastCallTime = lastCallTime;
+    }
+    
+    public int getAttempts() {
+        return attempts;
+    }
+    
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+    
+    public int getAnsweredCount() {
+        return answeredCount;
+    }
+    
+    public void setAnsweredCount(int answeredCount) {
+        this.answeredCount = answeredCount;
+    }
+    
+    public long getTotalTalkSeconds() {
+        return totalTalkSeconds;
+    }
+    
+    public void setTotalTalkSeconds(long totalTalkSeconds) {
+        this.totalTalkSeconds = totalTalkSeconds;
+    }
+}
@@ -0,0 +1,30 @@
+package com.salesdialer.model;
+
+/**
+ * 客户字段投影
+ * 按使用场景只请求需要的字段，大文本字段（需求、备注、意向楼盘）只在详情中加载
+ */
+public enum CustomerFieldSet {
+    
+    // 拨号队列：只需拨号和排序用的字段
+    DIAL_QUEUE(new String[]{"name", "phone", "level", "status", "owner_id"}),
+    
+    // 客户列表：列表项展示用的字段
+    LIST(new String[]{"name", "phone", "wechat_name", "customer_type", "level",
+            "status", "owner_id", "follow_count", "write_date"}),
+    
+    // 客户详情：全部字段
+    DETAIL(new String[]{"name", "phone", "wechat_name", "customer_type", "level",
+            "status", "requirement", "remark", "intended_property",
+            "owner_id", "follow_count", "write_date", "create_date"});
+    
+    private final String[] fields;
+    
+    CustomerFieldSet(String[] fields) {
+        this.fields = fields;
+    }
+    
+    public String[] getFields() {
+        return fields;
+    }
+}
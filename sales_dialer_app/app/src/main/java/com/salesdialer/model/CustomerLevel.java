@@ -0,0 +1,57 @@
+package com.salesdialer.model;
+
+import com.google.gson.annotations.JsonAdapter;
+
+/**
+ * 客户等级
+ * 排序时比较priority（数字越小优先级越高），不再比较字符串
+ */
+@JsonAdapter(value = OdooSelectionAdapterFactory.class, nullSafe = false)
+public enum CustomerLevel implements OdooSelection {
+    
+    A("a", "A级（重要）", 1),
+    B("b", "B级（一般）", 2),
+    C("c", "C级（待开发）", 3),
+    D("d", "D级（长期维护）", 4),
+    UNKNOWN(null, "未知", 999);
+    
+    private final String code;
+    private final String text;
+    private final int priority;
+    
+    CustomerLevel(String code, String text, int priority) {
+        this.code = code;
+        this.text = text;
+        this.priority = priority;
+    }
+    
+    @Override
+    public String getCode() {
+        return code;
+    }
+    
+    @Override
+    public String getText() {
+        return text;
+    }
+    
+    public int getPriority() {
+        return priority;
+    }
+    
+    /**
+     * 按Odoo取值查找，null或未知取值返回UNKNOWN
+     */
+    public static CustomerLevel fromCode(String code) {
+        if (code == null) {
+            return UNKNOWN;
+        }
+        switch (code) {
+            case "a": return A;
+            case "b": return B;
+            case "c": return C;
+            case "d": return D;
+            default: return UNKNOWN;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.salesdialer.model;
+
+import com.google.gson.annotations.JsonAdapter;
+
+/**
+ * 客户状态
+ */
+@JsonAdapter(value = OdooSelectionAdapterFactory.class, nullSafe = false)
+public enum CustomerStatus implements OdooSelection {
+    
+    VALID("valid", "有效"),
+    PENDING("pending", "暂缓"),
+    PURCHASED("purchased", "已购"),
+    INVALID("invalid", "无效"),
+    UNKNOWN(null, "未知");
+    
+    private final String code;
+    private final String text;
+    
+    CustomerStatus(String code, String text) {
+        this.code = code;
+        this.text = text;
+    }
+    
+    @Override
+    public String getCode() {
+        return code;
+    }
+    
+    @Override
+    public String getText() {
+        return text;
+    }
+    
+    /**
+     * 按Odoo取值查找，null或未知取值返回UNKNOWN
+     */
+    public static CustomerStatus fromCode(String code) {
+        if (code == null) {
+            return UNKNOWN;
+        }
+        switch (code) {
+            case "valid": return VALID;
+            case "pending": return PENDING;
+            case "purchased": return PURCHASED;
+            case "invalid": return INVALID;
+            default: return UNKNOWN;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.salesdialer.model;
+
+import com.google.gson.annotations.JsonAdapter;
+
+/**
+ * 客户类型
+ * 未设置时按公客显示
+ */
+@JsonAdapter(value = OdooSelectionAdapterFactory.class, nullSafe = false)
+public enum CustomerType implements OdooSelection {
+    
+    PUBLIC("public", "公客"),
+    PRIVATE("private", "私客"),
+    UNKNOWN(null, "公客");
+    
+    private final String code;
+    private final String text;
+    
+    CustomerType(String code, String text) {
+        this.code = code;
+        this.text = text;
+    }
+    
+    @Override
+    public String getCode() {
+        return code;
+    }
+    
+    @Override
+    public String getText() {
+        return text;
+    }
+    
+    /**
+     * 按Odoo取值查找，null或未知取值返回UNKNOWN
+     */
+    public static CustomerType fromCode(String code) {
+        if (code == null) {
+            return UNKNOWN;
+        }
+        switch (code) {
+            case "public": return PUBLIC;
+            case "private": return PRIVATE;
+            default: return UNKNOWN;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.salesdialer.model;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * 自动拨号会话检查点
+ * 只保存一行：队列中的客户id（按拨打顺序打包为BLOB）、游标和统计，
+ * 进程被系统杀死后由AutoDialerService据此恢复队列，无需重新拉取和排序
+ *
+ * <p>队列开始时写入一次完整id列表，之后每次拨打只更新游标和计数；
+ * 顺序不固定的队列另把加入、移出的客户追加到DialSessionChange，恢复时重放。</p>
+ */
+@Entity(tableName = "dial_sessions")
+public class DialSession {
+    
+    public static final int CURRENT_ID = 1;
+    
+    @PrimaryKey
+    private int id = CURRENT_ID;
+    
+    private String strategy;
+    
+    @ColumnInfo(name = "dial_interval")
+    private int dialInterval;
+    
+    @ColumnInfo(name = "start_time")
+    private long startTime;
+    
+    @ColumnInfo(name = "queue_ids", typeAffinity = ColumnInfo.BLOB)
+    private byte[] queueIds;
+    
+    private int cursor;  // queueIds中下一个待拨打的位置
+    
+    @ColumnInfo(name = "current_index")
+    private int currentIndex;
+    
+    @ColumnInfo(name = "total_dialed")
+    private int totalDialed;
+    
+    @ColumnInfo(name = "success_count")
+    private int successCount;
+    
+    @ColumnInfo(name = "failed_count")
+    private int failedCount;
+    
+    @ColumnInfo(name = "updated_at")
+    private long updatedAt;
+    
+    /**
+     * 把客户id打包为大端4字节序列
+     */
+    public static byte[] packIds(int[] ids) {
+        byte[] bytes = new byte[ids.length * 4];
+        for (int i = 0, j = 0; i < ids.length; i++) {
+            int id = ids[i];
+            bytes[j++] = (byte) (id >>> 24);
+            bytes[j++] = (byte) (id >>> 16);
+            bytes[j++] = (byte) (id >>> 8);
+            bytes[j++] = (byte) id;
+        }
+        return bytes;
+    }
+    
+    public static int[] unpackIds(byte[] bytes) {
+        if (bytes == null) {
+            return new int[0];
+        }
+        int[] ids = new int[bytes.length / 4];
+        for (int i = 0, j = 0; i < ids.length; i++) {
+            ids[i] = (bytes[j++] & 0xff) << 24
+                    | (bytes[j++] & 0xff) << 16
+                    | (bytes[j++] & 0xff) << 8
+                    | (bytes[j++] & 0xff);
+        }
+        return ids;
+    }
+    
+    // Getters and Setters
+    public int getId() {
+        return id;
+    }
+    
+    public void setId(int id) {
+        this.id = id;
+    }
+    
+    public String getStrategy() {
+        return strategy;
+    }
+    
+    public void setStrategy(String strategy) {
+        this.strategy = strategy;
+    }
+    
+    public int getDialInterval() {
+        return dialInterval;
+    }
+    
+    public void setDialInterval(int dialInterval) {
+        this.dialInterval = dialInterval;
+    }
+    
+    public long getStartTime() {
+        return startTime;
+    }
+    
+    public void setStartTime(long startTime) {
+        this.startTime = startTime;
+    }
+    
+    public byte[] getQueueIds() {
+        return queueIds;
+    }
+    
+    public void setQueueIds(byte[] queueIds) {
+        this.queueIds = queueIds;
+    }
+    
+    public int getCursor() {
+        return cursor;
+    }
+    
+    public void setCursor(int cursor) {
+        this.cursor = cursor;
+    }
+    
+    public int getCurrentIndex() {
+        return currentIndex;
+    }
+    
+    public void setCurrentIndex(int currentIndex) {
+        this.currentIndex = currentIndex;
+    }
+    
+    public int getTotalDialed() {
+        return totalDialed;
+    }
+    
+    public void setTotalDialed(int totalDialed) {
+        this.totalDialed = totalDialed;
+    }
+    
+    public int getSuccessCount() {
+        return successCount;
+    }
+    
+    public void setSuccessCount(int successCount) {
+        this.successCount = successCount;
+    }
+    
+    public int getFailedCount() {
+        return failedCount;
+    }
+    
+    public void setFailedCount(int failedCount) {
+        this.failedCount = failedCount;
+    }
+    
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
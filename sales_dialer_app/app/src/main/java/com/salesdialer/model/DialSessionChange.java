@@ -0,0 +1,58 @@
+package com.salesdialer.model;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.PrimaryKey;
+
+/**
+ * 拨号会话检查点的队列变化
+ * 顺序不固定的队列（DialScheduler）每次状态变化只追加加入、移除的客户，
+ * 恢复时在DialSession的完整id列表上按seq顺序重放；下一次完整写入时清空
+ */
+@Entity(tableName = "dial_session_changes")
+public class DialSessionChange {
+    
+    @PrimaryKey(autoGenerate = true)
+    private long seq;
+    
+    @ColumnInfo(name = "customer_id")
+    private int customerId;
+    
+    private boolean added;  // true为加入队列，false为移出队列（已拨打或被移除）
+    
+    // Constructors
+    public DialSessionChange() {
+    }
+    
+    @Ignore
+    public DialSessionChange(int customerId, boolean added) {
+        this.customerId = customerId;
+        this.added = added;
+    }
+    
+    // Getters and Setters
+    public long getSeq() {
+        return seq;
+    }
+    
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+    
+    public int getCustomerId() {
+        return customerId;
+    }
+    
+    public void setCustomerId(int customerId) {
+        this.customerId = customerId;
+    }
+    
+    public boolean isAdded() {
+        return added;
+    }
+    
+    public void setAdded(boolean added) {
+        this.added = added;
+    }
+}
@@ -1,55 +1,134 @@
 package com.salesdialer.model;
 
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
+import com.google.gson.annotations.JsonAdapter;
 import com.google.gson.annotations.SerializedName;
-import java.io.Serializable;
+import com.salesdialer.utils.OdooDateTime;
+import com.salesdialer.utils.OdooMany2one;
 
 /**
  * 跟进记录模型
  */
-@Entity(tableName = "follow_ups")
-public class FollowUp implements Serializable {
+@Entity(tableName = "follow_ups",
+        indices = {
+                @Index("customer_id"),
+                @Index("is_synced"),
+                @Index("next_follow_time")
+        })
+public class FollowUp implements Parcelable {
     
     @PrimaryKey(autoGenerate = true)
+    @ColumnInfo(name = "local_id")
     private int localId;
     
     @SerializedName("id")
     private int id;
     
     @SerializedName("customer_id")
+    @JsonAdapter(value = OdooMany2one.GsonAdapter.class, nullSafe = false)
+    @ColumnInfo(name = "customer_id")
     private int customerId;
     
     @SerializedName("follower_id")
+    @JsonAdapter(value = OdooMany2one.GsonAdapter.class, nullSafe = false)
+    @ColumnInfo(name = "follower_id")
     private int followerId;
     
     @SerializedName("follow_content")
+    @ColumnInfo(name = "follow_content")
     private String followContent;
     
     @SerializedName("follow_time")
-    private String followTime;
+    @JsonAdapter(value = OdooDateTime.GsonAdapter.class, nullSafe = false)
+    @ColumnInfo(name = "follow_time")
+    private long followTime;  // UTC毫秒
     
     @SerializedName("result")
-    private String result;  // pending, contacted, interested, no_interest, closed
+    private FollowUpResult result = FollowUpResult.UNKNOWN;
     
     @SerializedName("next_follow_time")
-    private String nextFollowTime;
+    @JsonAdapter(value = OdooDateTime.GsonAdapter.class, nullSafe = false)
+    @ColumnInfo(name = "next_follow_time")
+    private long nextFollowTime;  // UTC毫秒，0表示不回访
     
     @SerializedName("create_date")
-    private String createDate;
+    @JsonAdapter(value = OdooDateTime.GsonAdapter.class, nullSafe = false)
+    @ColumnInfo(name = "create_date")
+    private long createDate;
     
     // 本地字段
+    @ColumnInfo(name = "is_synced")
     private boolean isSynced = false;
+    @ColumnInfo(name = "call_duration")
     private long callDuration = 0;  // 通话时长（秒）
+    @ColumnInfo(name = "upload_attempts", defaultValue = "0")
+    private int uploadAttempts = 0;  // 上传失败次数，达到上限后不再上传
     
     // Constructors
     public FollowUp() {
     }
     
-    public FollowUp(int customerId, String followContent, String result) {
+    @Ignore
+    public FollowUp(int customerId, String followContent, FollowUpResult result) {
         this.customerId = customerId;
         this.followContent = followContent;
-        this.result = result;
+        setResult(result);
+    }
+    
+    @Ignore
+    protected FollowUp(Parcel in) {
+        localId = in.readInt();
+        id = in.readInt();
+        customerId = in.readInt();
+        followerId = in.readInt();
+        followContent = in.readString();
+        followTime = in.readLong();
+        result = FollowUpResult.values()[in.readByte()];
+        nextFollowTime = in.readLong();
+        createDate = in.readLong();
+        isSynced = in.readByte() != 0;
+        callDuration = in.readLong();
+        uploadAttempts = in.readInt();
+    }
+    
+    public static final Creator<FollowUp> CREATOR = new Creator<FollowUp>() {
+        @Override
+        public FollowUp createFromParcel(Parcel in) {
+            return new FollowUp(in);
+        }
+        
+        @Override
+        public FollowUp[] newArray(int size) {
+            return new FollowUp[size];
+        }
+    };
+    
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+    
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeInt(localId);
+        dest.writeInt(id);
+        dest.writeInt(customerId);
+        dest.writeInt(followerId);
+        dest.writeString(followContent);
+        dest.writeLong(followTime);
+        dest.writeByte((byte) result.ordinal());
+        dest.writeLong(nextFollowTime);
+        dest.writeLong(createDate);
+        dest.writeByte((byte) (isSynced ? 1 : 0));
+        dest.writeLong(callDuration);
+        dest.writeInt(uploadAttempts);
     }
     
     // Getters and Setters
@@ -93,35 +172,35 @@ public class FollowUp implements Serializable {
         this.followContent = followContent;
     }
     
-    public String getFollowTime() {
+    public long getFollowTime() {
         return followTime;
     }
     
-    public void setFollowTime(String followTime) {
+    public void setFollowTime(long followTime) {
         this.followTime = followTime;
     }
     
-    public String getResult() {
+    public FollowUpResult getResult() {
         return result;
     }
     
-    public void setResult(String result) {
-        this.result = result;
+    public void setResult(FollowUpResult result) {
+        this.result = result != null ? result : FollowUpResult.UNKNOWN;
     }
     
-    public String getNextFollowTime() {
+    public long getNextFollowTime() {
         return nextFollowTime;
     }
     
-    public void setNextFollowTime(String nextFollowTime) {
+    public void setNextFollowTime(long nextFollowTime) {
         this.nextFollowTime = nextFollowTime;
     }
     
-    public String getCreateDate() {
+    public long getCreateDate() {
         return createDate;
     }
     
-    public void setCreateDate(String createDate) {
+    public void setCreateDate(long createDate) {
         this.createDate = createDate;
     }
     
@@ -141,16 +220,17 @@ public class FollowUp implements Serializable {
         this.callDuration = callDuration;
     }
     
+    public int getUploadAttempts() {
+        return uploadAttempts;
+    }
+    
+    public void setUploadAttempts(int uploadAttempts) {
+        this.uploadAttempts = uploadAttempts;
+    }
+    
     // Helper methods
     public String getResultText() {
-        switch (result) {
-            case "pending": return "待跟进";
-            case "contacted": return "已联系";
-            case "interested": return "有意向";
-            case "no_interest": return "无意向";
-            case "closed": return "已成交";
-            default: return "未知";
-        }
+        return result.getText();
     }
     
     public String getCallDurationText() {
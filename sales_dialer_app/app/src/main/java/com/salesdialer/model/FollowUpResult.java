@@ -0,0 +1,52 @@
+package com.salesdialer.model;
+
+import com.google.gson.annotations.JsonAdapter;
+
+/**
+ * 跟进结果
+ */
+@JsonAdapter(value = OdooSelectionAdapterFactory.class, nullSafe = false)
+public enum FollowUpResult implements OdooSelection {
+    
+    PENDING("pending", "待跟进"),
+    CONTACTED("contacted", "已联系"),
+    INTERESTED("interested", "有意向"),
+    NO_INTEREST("no_interest", "无意向"),
+    CLOSED("closed", "已成交"),
+    UNKNOWN(null, "未知");
+    
+    private final String code;
+    private final String text;
+    
+    FollowUpResult(String code, String text) {
+        this.code = code;
+        this.text = text;
+    }
+    
+    @Override
+    public String getCode() {
+        return code;
+    }
+    
+    @Override
+    public String getText() {
+        return text;
+    }
+    
+    /**
+     * 按Odoo取值查找，null或未知取值返回UNKNOWN
+     */
+    public static FollowUpResult fromCode(String code) {
+        if (code == null) {
+            return UNKNOWN;
+        }
+        switch (code) {
+            case "pending": return PENDING;
+            case "contacted": return CONTACTED;
+            case "interested": return INTERESTED;
+            case "no_interest": return NO_INTEREST;
+            case "closed": return CLOSED;
+            default: return UNKNOWN;
+        }
+    }
+}
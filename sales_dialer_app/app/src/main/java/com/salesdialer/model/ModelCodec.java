@@ -0,0 +1,287 @@
+package com.salesdialer.model;
+
+import com.salesdialer.utils.OdooDateTime;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 模型二进制编解码
+ * 用于落盘快照，比Java序列化紧凑且不依赖反射
+ *
+ * <pre>
+ * 文件：magic(int) version(byte) kind(byte) count(int) record*
+ * 记录：length(int) 字段...
+ * 字符串：length(int，null为-1) UTF-8字节；selection枚举按Odoo取值存储，与枚举顺序无关
+ * </pre>
+ *
+ * <p>新版本只在记录末尾追加字段：读取旧记录时缺少的字段保持默认值，
+ * 读取新记录时跳过不认识的尾部字段，因此新旧版本可以互相读取。</p>
+ */
+public final class ModelCodec {
+    
+    private static final int MAGIC = 0x5344_4D43; // "SDMC"
+    // 2：日期时间由Odoo字符串改为UTC毫秒；3：跟进记录追加上传失败次数
+    private static final byte VERSION = 3;
+    private static final byte KIND_CUSTOMER = 1;
+    private static final byte KIND_FOLLOW_UP = 2;
+    
+    private ModelCodec() {
+    }
+    
+    public static byte[] encodeCustomers(List<Customer> customers) throws IOException {
+        Encoder encoder = new Encoder(KIND_CUSTOMER, customers.size());
+        for (Customer customer : customers) {
+            DataOutputStream out = encoder.beginRecord();
+            out.writeInt(customer.getId());
+            writeString(out, customer.getName());
+            writeString(out, customer.getPhone());
+            writeString(out, customer.getWechatName());
+            writeString(out, customer.getCustomerType().getCode());
+            writeString(out, customer.getLevel().getCode());
+            writeString(out, customer.getStatus().getCode());
+            writeString(out, customer.getRequirement());
+            writeString(out, customer.getRemark());
+            writeString(out, customer.getIntendedProperty());
+            out.writeInt(customer.getOwnerId());
+            out.writeInt(customer.getFollowCount());
+            out.writeLong(customer.getWriteDate());
+            out.writeLong(customer.getCreateDate());
+            out.writeBoolean(customer.isSynced());
+            out.writeLong(customer.getLastCallTime());
+            out.writeInt(customer.getCallCount());
+            out.writeByte(customer.getFieldSet().ordinal());
+            encoder.endRecord();
+        }
+        return encoder.finish();
+    }
+    
+    public static List<Customer> decodeCustomers(byte[] bytes) throws IOException {
+        Decoder decoder = new Decoder(bytes, KIND_CUSTOMER);
+        List<Customer> customers = new ArrayList<>(decoder.count);
+        try {
+            for (int i = 0; i < decoder.count; i++) {
+                decoder.beginRecord();
+                Customer customer = new Customer();
+                customer.setId(decoder.readInt());
+                customer.setName(decoder.readString());
+                customer.setPhone(decoder.readString());
+                customer.setWechatName(decoder.readString());
+                customer.setCustomerType(CustomerType.fromCode(decoder.readString()));
+                customer.setLevel(CustomerLevel.fromCode(decoder.readString()));
+                customer.setStatus(CustomerStatus.fromCode(decoder.readString()));
+                customer.setRequirement(decoder.readString());
+                customer.setRemark(decoder.readString());
+                customer.setIntendedProperty(decoder.readString());
+                customer.setOwnerId(decoder.readInt());
+                customer.setFollowCount(decoder.readInt());
+                customer.setWriteDate(decoder.readTimestamp());
+                customer.setCreateDate(decoder.readTimestamp());
+                customer.setSynced(decoder.readBoolean(true));
+                customer.setLastCallTime(decoder.readLong());
+                customer.setCallCount(decoder.readInt());
+                int fieldSet = decoder.readByte(CustomerFieldSet.DETAIL.ordinal());
+                if (fieldSet >= 0 && fieldSet < CustomerFieldSet.values().length) {
+                    customer.setFieldSet(CustomerFieldSet.values()[fieldSet]);
+                }
+                decoder.endRecord();
+                customers.add(customer);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated customer snapshot", e);
+        }
+        return customers;
+    }
+    
+    public static byte[] encodeFollowUps(List<FollowUp> followUps) throws IOException {
+        Encoder encoder = new Encoder(KIND_FOLLOW_UP, followUps.size());
+        for (FollowUp followUp : followUps) {
+            DataOutputStream out = encoder.beginRecord();
+            out.writeInt(followUp.getLocalId());
+            out.writeInt(followUp.getId());
+            out.writeInt(followUp.getCustomerId());
+            out.writeInt(followUp.getFollowerId());
+            writeString(out, followUp.getFollowContent());
+            out.writeLong(followUp.getFollowTime());
+            writeString(out, followUp.getResult().getCode());
+            out.writeLong(followUp.getNextFollowTime());
+            out.writeLong(followUp.getCreateDate());
+            out.writeBoolean(followUp.isSynced());
+            out.writeLong(followUp.getCallDuration());
+            out.writeInt(followUp.getUploadAttempts());
+            encoder.endRecord();
+        }
+        return encoder.finish();
+    }
+    
+    public static List<FollowUp> decodeFollowUps(byte[] bytes) throws IOException {
+        Decoder decoder = new Decoder(bytes, KIND_FOLLOW_UP);
+        List<FollowUp> followUps = new ArrayList<>(decoder.count);
+        try {
+            for (int i = 0; i < decoder.count; i++) {
+                decoder.beginRecord();
+                FollowUp followUp = new FollowUp();
+                followUp.setLocalId(decoder.readInt());
+                followUp.setId(decoder.readInt());
+                followUp.setCustomerId(decoder.readInt());
+                followUp.setFollowerId(decoder.readInt());
+                followUp.setFollowContent(decoder.readString());
+                followUp.setFollowTime(decoder.readTimestamp());
+                followUp.setResult(FollowUpResult.fromCode(decoder.readString()));
+                followUp.setNextFollowTime(decoder.readTimestamp());
+                followUp.setCreateDate(decoder.readTimestamp());
+                followUp.setSynced(decoder.readBoolean(false));
+                followUp.setCallDuration(decoder.readLong());
+                followUp.setUploadAttempts(decoder.readInt());
+                decoder.endRecord();
+                followUps.add(followUp);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated follow-up snapshot", e);
+        }
+        return followUps;
+    }
+    
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    /**
+     * 写入文件头，逐条写入带长度前缀的记录
+     */
+    private static class Encoder {
+        
+        private final ByteArrayOutputStream file = new ByteArrayOutputStream();
+        private final DataOutputStream fileOut = new DataOutputStream(file);
+        private final ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+        private final DataOutputStream recordOut = new DataOutputStream(record);
+        
+        Encoder(byte kind, int count) throws IOException {
+            fileOut.writeInt(MAGIC);
+            fileOut.writeByte(VERSION);
+            fileOut.writeByte(kind);
+            fileOut.writeInt(count);
+        }
+        
+        DataOutputStream beginRecord() {
+            record.reset();
+            return recordOut;
+        }
+        
+        void endRecord() throws IOException {
+            recordOut.flush();
+            fileOut.writeInt(record.size());
+            record.writeTo(fileOut);
+        }
+        
+        byte[] finish() throws IOException {
+            fileOut.flush();
+            return file.toByteArray();
+        }
+    }
+    
+    /**
+     * 校验文件头，按记录长度读取字段；读到记录末尾后的字段返回默认值
+     */
+    private static class Decoder {
+        
+        private final ByteBuffer buffer;
+        private final byte version;
+        private final int count;
+        private int recordEnd;
+        
+        Decoder(byte[] bytes, byte kind) throws IOException {
+            buffer = ByteBuffer.wrap(bytes);
+            if (bytes.length < 10 || buffer.getInt() != MAGIC) {
+                throw new IOException("Not a model snapshot");
+            }
+            version = buffer.get();
+            if (version < 1) {
+                throw new IOException("Unsupported snapshot version: " + version);
+            }
+            byte actualKind = buffer.get();
+            if (actualKind != kind) {
+                throw new IOException("Unexpected snapshot kind: " + actualKind);
+            }
+            count = buffer.getInt();
+            if (count < 0) {
+                throw new IOException("Invalid record count: " + count);
+            }
+        }
+        
+        void beginRecord() throws IOException {
+            int length = buffer.getInt();
+            if (length < 0 || length > buffer.remaining()) {
+                throw new IOException("Invalid record length: " + length);
+            }
+            recordEnd = buffer.position() + length;
+        }
+        
+        void endRecord() {
+            // 跳过新版本追加的字段
+            buffer.position(recordEnd);
+        }
+        
+        private boolean hasMore(int bytes) {
+            return buffer.position() + bytes <= recordEnd;
+        }
+        
+        int readInt() {
+            return hasMore(4) ? buffer.getInt() : 0;
+        }
+        
+        long readLong() {
+            return hasMore(8) ? buffer.getLong() : 0;
+        }
+        
+        int readByte(int defaultValue) {
+            return hasMore(1) ? buffer.get() : defaultValue;
+        }
+        
+        boolean readBoolean(boolean defaultValue) {
+            return hasMore(1) ? buffer.get() != 0 : defaultValue;
+        }
+        
+        /**
+         * 日期时间：版本1为Odoo字符串，之后为UTC毫秒
+         */
+        long readTimestamp() throws IOException {
+            if (version >= 2) {
+                return readLong();
+            }
+            try {
+                return OdooDateTime.parse(readString());
+            } catch (IllegalArgumentException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+        
+        String readString() throws IOException {
+            if (!hasMore(4)) {
+                return null;
+            }
+            int length = buffer.getInt();
+            if (length < 0) {
+                return null;
+            }
+            if (!hasMore(length)) {
+                throw new IOException("Invalid string length: " + length);
+            }
+            String value = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+            return value;
+        }
+    }
+}
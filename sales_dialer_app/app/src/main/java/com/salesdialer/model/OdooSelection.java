@@ -0,0 +1,12 @@
+package com.salesdialer.model;
+
+/**
+ * Odoo selection字段对应的枚举
+ * code为服务器上的取值，UNKNOWN常量的code为null（服务器返回false、空值或未知取值）
+ */
+public interface OdooSelection {
+    
+    String getCode();
+    
+    String getText();
+}
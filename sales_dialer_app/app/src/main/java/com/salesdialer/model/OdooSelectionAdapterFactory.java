@@ -0,0 +1,79 @@
+package com.salesdialer.model;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * OdooSelection枚举的Gson适配器
+ * 按code读写；Odoo对空的selection字段返回false，与null及未知取值一样映射为UNKNOWN，不会得到null
+ *
+ * <p>通过枚举上的@JsonAdapter(nullSafe = false)生效，无需在各处的Gson实例上注册。</p>
+ */
+public class OdooSelectionAdapterFactory implements TypeAdapterFactory {
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (!rawType.isEnum() || !OdooSelection.class.isAssignableFrom(rawType)) {
+            return null;
+        }
+        
+        Map<String, T> byCode = new HashMap<>();
+        T unknown = null;
+        for (Object constant : rawType.getEnumConstants()) {
+            String code = ((OdooSelection) constant).getCode();
+            if (code == null) {
+                unknown = (T) constant;
+            } else {
+                byCode.put(code, (T) constant);
+            }
+        }
+        return new SelectionAdapter<>(byCode, unknown);
+    }
+    
+    private static class SelectionAdapter<T> extends TypeAdapter<T> {
+        
+        private final Map<String, T> byCode;
+        private final T unknown;
+        
+        SelectionAdapter(Map<String, T> byCode, T unknown) {
+            this.byCode = byCode;
+            this.unknown = unknown;
+        }
+        
+        @Override
+        public void write(JsonWriter out, T value) throws IOException {
+            String code = value != null ? ((OdooSelection) value).getCode() : null;
+            if (code == null) {
+                out.nullValue();
+            } else {
+                out.value(code);
+            }
+        }
+        
+        @Override
+        public T read(JsonReader in) throws IOException {
+            JsonToken token = in.peek();
+            if (token == JsonToken.NULL) {
+                in.nextNull();
+                return unknown;
+            }
+            if (token == JsonToken.BOOLEAN) {
+                in.nextBoolean();
+                return unknown;
+            }
+            T value = byCode.get(in.nextString());
+            return value != null ? value : unknown;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.salesdialer.model;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * 待上传操作（发件箱）
+ * 离线时的写操作先落库，由后台任务在有网络时统一上传
+ *
+ * <p>同一目标的多次写入合并到同一行（type + target_id 唯一），
+ * 每次合并version加一，上传成功后只删除version未变的行，避免丢失上传期间的新写入。</p>
+ */
+@Entity(tableName = "outbox",
+        indices = {
+                @Index(value = {"type", "target_id"}, unique = true)
+        })
+public class OutboxOperation {
+    
+    public static final String TYPE_UPDATE_CUSTOMER = "update_customer";
+    
+    @PrimaryKey(autoGenerate = true)
+    private long id;
+    
+    private String type;
+    
+    @ColumnInfo(name = "target_id")
+    private int targetId;
+    
+    private String payload;  // JSON格式的写入值
+    
+    private int version = 0;
+    
+    private int attempts = 0;
+    
+    @ColumnInfo(name = "created_at")
+    private long createdAt;
+    
+    // Constructors
+    public OutboxOperation() {
+    }
+    
+    @Ignore
+    public OutboxOperation(String type, int targetId, String payload) {
+        this.type = type;
+        this.targetId = targetId;
+        this.payload = payload;
+        this.createdAt = System.currentTimeMillis();
+    }
+    
+    // Getters and Setters
+    public long getId() {
+        return id;
+    }
+    
+    public void setId(long id) {
+        this.id = id;
+    }
+    
+    public String getType() {
+        return type;
+    }
+    
+    public void setType(String type) {
+        this.type = type;
+    }
+    
+    public int getTargetId() {
+        return targetId;
+    }
+    
+    public void setTargetId(int targetId) {
+        this.targetId = targetId;
+    }
+    
+    public String getPayload() {
+        return payload;
+    }
+    
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+    
+    public int getVersion() {
+        return version;
+    }
+    
+    public void setVersion(int version) {
+        this.version = version;
+    }
+    
+    public int getAttempts() {
+        return attempts;
+    }
+    
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+    
+    public long getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+}
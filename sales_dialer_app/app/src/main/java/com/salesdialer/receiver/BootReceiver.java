@@ -0,0 +1,23 @@
+package com.salesdialer.receiver;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+import com.salesdialer.service.CallbackScheduler;
+
+/**
+ * 开机及应用更新广播接收器
+ * 系统闹钟在重启和应用更新后失效，需要重新设定回访闹钟；关机期间到期的回访随之补发
+ */
+public class BootReceiver extends BroadcastReceiver {
+    
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        String action = intent.getAction();
+        if (Intent.ACTION_BOOT_COMPLETED.equals(action)
+                || Intent.ACTION_MY_PACKAGE_REPLACED.equals(action)) {
+            CallbackScheduler.getInstance(context).reschedule();
+        }
+    }
+}
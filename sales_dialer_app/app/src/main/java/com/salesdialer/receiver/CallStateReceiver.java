@@ -0,0 +1,22 @@
+package com.salesdialer.receiver;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.telephony.TelephonyManager;
+
+import com.salesdialer.service.CallStateMonitor;
+
+/**
+ * 通话状态广播接收器
+ * 把PHONE_STATE广播转发给正在运行的CallStateMonitor，自动拨号未运行时忽略
+ */
+public class CallStateReceiver extends BroadcastReceiver {
+    
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        if (TelephonyManager.ACTION_PHONE_STATE_CHANGED.equals(intent.getAction())) {
+            CallStateMonitor.dispatchBroadcast(intent.getStringExtra(TelephonyManager.EXTRA_STATE));
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.salesdialer.receiver;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+
+import com.salesdialer.service.CallbackScheduler;
+
+/**
+ * 回访闹钟接收器
+ * 在后台线程处理到期回访，处理完成前保持广播存活
+ */
+public class CallbackAlarmReceiver extends BroadcastReceiver {
+    
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        PendingResult result = goAsync();
+        CallbackScheduler.getInstance(context).onAlarm(result::finish);
+    }
+}
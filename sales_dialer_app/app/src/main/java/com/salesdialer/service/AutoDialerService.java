@@ -1,53 +1,119 @@
 package com.salesdialer.service;
 
-import android.app.Notification;
-import android.app.NotificationChannel;
-import android.app.NotificationManager;
-import android.app.PendingIntent;
 import android.app.Service;
+import android.content.Context;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Binder;
-import android.os.Build;
 import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.IBinder;
 import android.os.Looper;
+import android.os.SystemClock;
+import android.telephony.TelephonyManager;
 import android.util.Log;
 
-import androidx.core.app.NotificationCompat;
+import androidx.core.content.ContextCompat;
 
-import com.salesdialer.R;
-import com.salesdialer.activity.AutoDialerActivity;
+import com.salesdialer.api.OdooApiClient;
+import com.salesdialer.database.AppDatabase;
+import com.salesdialer.database.CallHistoryStore;
+import com.salesdialer.model.CallRecord;
 import com.salesdialer.model.Customer;
+import com.salesdialer.model.CustomerFieldSet;
+import com.salesdialer.model.DialSession;
+import com.salesdialer.model.DialSessionChange;
+import com.salesdialer.service.strategy.AnswerRateStats;
+import com.salesdialer.service.strategy.DialStrategies;
+import com.salesdialer.service.strategy.DialStrategy;
+import com.salesdialer.service.strategy.StrategySorter;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 自动拨号服务
  * 实现自动拨号队列、间隔控制、状态管理
+ *
+ * <p>拨号节奏由通话状态驱动：DIALING →（OFFHOOK）→ 挂断回到IDLE → WRAP_UP整理时间 → 下一个。
+ * 无法监听通话状态（如未授予READ_PHONE_STATE）时退回固定间隔拨号。</p>
+ *
+ * <p>线程模型：队列、计时和拨号状态只在专用的拨号线程（engineThread）上读写，公开方法把操作投递到该线程；
+ * DialerListener回调统一投递到主线程，界面卡顿不会影响拨号计时。
+ * 界面通过getStatus()读取拨号线程发布的不可变快照，无需加锁。</p>
+ *
+ * <p>会话恢复：队列来自SessionCheckpointSource时，开始时写入客户id列表，每次状态变化只更新游标、统计
+ * 和队列增减（DialScheduler）；进程被杀后服务以空intent重启，从检查点恢复剩余客户id并处于暂停状态，
+ * 由销售确认后继续。本地未缓存的客户在恢复后从服务器读取。</p>
  */
 public class AutoDialerService extends Service {
     
     private static final String TAG = "AutoDialerService";
-    private static final String CHANNEL_ID = "auto_dialer_channel";
-    private static final int NOTIFICATION_ID = 1001;
+    
+    // 启动参数：只传递客户id，客户数据由服务从本地数据库加载，避免大队列超出Binder事务上限
+    public static final String EXTRA_CUSTOMER_IDS = "com.salesdialer.extra.CUSTOMER_IDS";
+    public static final String EXTRA_STRATEGY = "com.salesdialer.extra.STRATEGY";
+    public static final String EXTRA_INTERVAL = "com.salesdialer.extra.INTERVAL";
+    
+    private static final long QUEUE_WAIT_MS = 500; // 等待下一页加载的轮询间隔
+    private static final long CALL_LOG_DELAY_MS = 1500; // 挂断后等待系统写入通话记录
+    private static final long CALL_LOG_SLACK_MS = 5000; // 通话记录时间与拨号时间的允许误差
+    private static final int PACING_SEED_SIZE = 50; // 初始化节奏时读取的历史通话数
+    private static final int RESTORE_BATCH_SIZE = 500; // 恢复时每次按id查询的数量（SQLite参数上限）
+    private static final int MIN_COMPACT_CHANGES = 256; // 检查点追加的队列变化超过此数且超过剩余队列时重写完整id列表
+    
+    // 当前运行的服务实例，供CallbackScheduler投递到期回访
+    private static volatile AutoDialerService active;
     
     private final IBinder binder = new LocalBinder();
-    private Handler handler;
+    private HandlerThread engineThread;
+    private Handler handler; // 拨号线程
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private DialerNotifier notifier;
     
     // 拨号队列
-    private List<Customer> dialQueue = new ArrayList<>();
+    private DialQueueSource queueSource = new ListDialQueueSource(new ArrayList<>());
+    private volatile boolean acceptsCallbacks = false; // 当前队列是否支持插入回访（DialScheduler）
     private int currentIndex = 0;
+    private int baseIndex = 0; // 恢复会话时此前已拨打的数量
     
-    // 拨号状态
+    // 拨号状态（仅拨号线程读写，界面通过status快照读取）
     private boolean isDialing = false;
     private boolean isPaused = false;
-    private Customer currentCustomer;
+    private volatile Customer currentCustomer;
+    
+    // 通话状态
+    private CallStateMonitor callStateMonitor;
+    private boolean callStateDriven = false; // false时退回固定间隔拨号
+    private volatile CallPhase callPhase = CallPhase.IDLE;
+    private boolean lineBusy = false; // 有非本服务发起的通话（如来电）占线
+    private boolean skipRequested = false;
+    private boolean resultRecorded = false; // 当前客户的拨打结果已计数，整理时间内跳过不再重复计数
+    private long dialStartTime = 0;
+    private long offhookTime = 0;
+    private long callEndTime = 0;
     
     // 拨号配置
-    private int dialInterval = 5000; // 默认5秒间隔
-    private String dialStrategy = "priority"; // priority, time, random
+    private int dialInterval = 5000; // 挂断后的基础整理时间，默认5秒；固定间隔模式下为拨号间隔
+    private long dialTimeout = 30000; // 发出拨号后等待摘机的最长时间
+    private boolean adaptivePacing = true; // 根据接通率和通话时长自动调整整理时间
+    private final PacingController pacing = new PacingController(5000);
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor();
+    private SessionCheckpointer checkpointer;
+    private boolean queueCheckpointed = false; // 当前队列的完整id列表是否已写入检查点
+    private int journaledChanges = 0; // 上次完整写入后追加的队列变化数
+    private CallHistoryStore callHistory;
+    private String dialStrategy = DialStrategies.PRIORITY; // DialStrategies中注册的名称，或scheduler
+    private final StrategySorter sorter = new StrategySorter();
     
     // 拨号统计
     private int totalDialed = 0;
@@ -55,8 +121,38 @@ public class AutoDialerService extends Service {
     private int failedCount = 0;
     private long startTime = 0;
     
-    // 回调监听
-    private DialerListener listener;
+    // 回调监听，在主线程回调
+    private volatile DialerListener listener;
+    
+    // 最近一次发布的状态快照，仅在内容变化时重建
+    private final AtomicReference<DialerStatus> status = new AtomicReference<>(DialerStatus.IDLE);
+    private final AtomicBoolean statusDeliveryPending = new AtomicBoolean(false);
+    private final Runnable statusDelivery = () -> {
+        statusDeliveryPending.set(false);
+        DialerListener current = listener;
+        if (current != null) {
+            current.onStatusUpdate(status.get());
+        }
+    };
+    
+    /**
+     * 当前客户的通话阶段
+     * 去电不会经过RINGING，只有部分机型会在拨出时上报
+     */
+    public enum CallPhase {
+        IDLE,       // 无通话，等待拨打下一个
+        DIALING,    // 已发出拨号，等待摘机
+        RINGING,
+        OFFHOOK,    // 通话中
+        WRAP_UP     // 已挂断，整理时间
+    }
+    
+    /**
+     * 投递到主线程的监听事件
+     */
+    private interface ListenerEvent {
+        void deliver(DialerListener listener);
+    }
     
     public interface DialerListener {
         void onDialStart(Customer customer);
@@ -66,24 +162,47 @@ public class AutoDialerService extends Service {
         void onStatusUpdate(DialerStatus status);
     }
     
-    public static class DialerStatus {
-        public int totalCount;
-        public int currentIndex;
-        public int successCount;
-        public int failedCount;
-        public boolean isPaused;
-        public boolean isRunning;
-        public long elapsedTime;
+    /**
+     * 拨号状态快照（不可变）
+     * 由拨号线程在状态变化时整体替换，读取方拿到的各字段总是同一时刻的值
+     */
+    public static final class DialerStatus {
+        
+        static final DialerStatus IDLE = new DialerStatus(0, 0, 0, 0, false, false, 0, CallPhase.IDLE);
+        
+        public final int totalCount;  // 未知时为-1
+        public final int currentIndex;
+        public final int successCount;
+        public final int failedCount;
+        public final boolean isPaused;
+        public final boolean isRunning;
+        public final long startTime;
+        public final CallPhase callPhase;
         
         public DialerStatus(int total, int current, int success, int failed, 
-                          boolean paused, boolean running, long elapsed) {
+                          boolean paused, boolean running, long startTime, CallPhase callPhase) {
             this.totalCount = total;
             this.currentIndex = current;
             this.successCount = success;
             this.failedCount = failed;
             this.isPaused = paused;
             this.isRunning = running;
-            this.elapsedTime = elapsed;
+            this.startTime = startTime;
+            this.callPhase = callPhase;
+        }
+        
+        /**
+         * 已运行时长，运行中按当前时间计算
+         */
+        public long getElapsedTime() {
+            return isRunning ? System.currentTimeMillis() - startTime : 0;
+        }
+        
+        boolean sameAs(int total, int current, int success, int failed,
+                       boolean paused, boolean running, long start, CallPhase phase) {
+            return totalCount == total && currentIndex == current && successCount == success
+                    && failedCount == failed && isPaused == paused && isRunning == running
+                    && startTime == start && callPhase == phase;
         }
     }
     
@@ -96,18 +215,47 @@ public class AutoDialerService extends Service {
     @Override
     public void onCreate() {
         super.onCreate();
-        handler = new Handler(Looper.getMainLooper());
-        createNotificationChannel();
+        engineThread = new HandlerThread("AutoDialerEngine");
+        engineThread.start();
+        handler = new Handler(engineThread.getLooper());
+        callStateMonitor = new CallStateMonitor(this, engineThread.getLooper(), this::onCallStateChanged);
+        notifier = new DialerNotifier(this, handler);
+        checkpointer = new SessionCheckpointer(this, ioExecutor);
+        callHistory = CallHistoryStore.getInstance(this);
+        active = this;
         Log.d(TAG, "Service created");
     }
     
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
         // 启动前台服务
-        startForeground(NOTIFICATION_ID, createNotification());
+        startForeground(DialerNotifier.NOTIFICATION_ID, notifier.createInitialNotification());
+        if (intent == null) {
+            // 进程被杀后的粘性重启
+            handler.post(this::restoreSession);
+        } else if (intent.hasExtra(EXTRA_CUSTOMER_IDS)) {
+            int[] ids = intent.getIntArrayExtra(EXTRA_CUSTOMER_IDS);
+            String strategy = intent.getStringExtra(EXTRA_STRATEGY);
+            int interval = intent.getIntExtra(EXTRA_INTERVAL, dialInterval);
+            handler.post(() -> startFromIds(ids, strategy, interval));
+        }
         return START_STICKY;
     }
     
+    /**
+     * 以客户id启动拨号服务
+     * 适用于无法绑定服务的场景（如通知、广播）；客户需已缓存在本地数据库
+     *
+     * @param strategy DialStrategies中注册的策略名，null使用默认策略
+     */
+    public static void start(Context context, int[] customerIds, String strategy, int interval) {
+        Intent intent = new Intent(context, AutoDialerService.class)
+                .putExtra(EXTRA_CUSTOMER_IDS, customerIds)
+                .putExtra(EXTRA_STRATEGY, strategy)
+                .putExtra(EXTRA_INTERVAL, interval);
+        ContextCompat.startForegroundService(context, intent);
+    }
+    
     @Override
     public IBinder onBind(Intent intent) {
         return binder;
@@ -115,28 +263,135 @@ public class AutoDialerService extends Service {
     
     /**
      * 开始自动拨号
+     *
+     * @param strategy DialStrategies中注册的策略名；scheduler表示使用可动态调整的DialScheduler
      */
     public void startDialing(List<Customer> customers, String strategy, int interval) {
+        List<Customer> snapshot = new ArrayList<>(customers);
+        handler.post(() -> startWithStrategyName(snapshot, strategy, interval));
+    }
+    
+    /**
+     * 按指定策略排序后开始自动拨号
+     */
+    public void startDialing(List<Customer> customers, DialStrategy strategy, int interval) {
+        List<Customer> snapshot = new ArrayList<>(customers);
+        handler.post(() -> startSorted(snapshot, strategy, interval));
+    }
+    
+    /**
+     * 从数据源开始自动拨号
+     * 数据源按需加载，第一页到达即可开始拨号
+     */
+    public void startDialing(DialQueueSource source, int interval) {
+        handler.post(() -> startFromSource(source, interval));
+    }
+    
+    private void startWithStrategyName(List<Customer> customers, String strategy, int interval) {
         if (isDialing) {
             Log.w(TAG, "Dialing already in progress");
             return;
         }
         
-        this.dialQueue = new ArrayList<>(customers);
-        this.dialStrategy = strategy;
+        if ("scheduler".equals(strategy)) {
+            // 动态调度：拨号过程中可随时调整客户位置、插入回访
+            this.dialStrategy = strategy;
+            callHistory.applyTo(customers);
+            startFromSource(new DialScheduler(customers), interval);
+            return;
+        }
+        
+        DialStrategy resolved = DialStrategies.create(strategy);
+        if (resolved == null) {
+            Log.w(TAG, "Unknown dial strategy: " + strategy);
+            resolved = DialStrategies.create(DialStrategies.SERVER);
+        }
+        startSorted(customers, resolved, interval);
+    }
+    
+    /**
+     * 排序在拨号线程执行，大队列不会阻塞界面
+     */
+    private void startSorted(List<Customer> customers, DialStrategy strategy, int interval) {
+        if (isDialing) {
+            Log.w(TAG, "Dialing already in progress");
+            return;
+        }
+        
+        this.dialStrategy = strategy.getName();
+        
+        // 根据策略排序队列，先用本地通话汇总补齐最后拨打时间和拨打次数
+        callHistory.applyTo(customers);
+        sorter.sort(customers, strategy);
+        
+        startFromSource(new ListDialQueueSource(customers), interval);
+    }
+    
+    private void startFromSource(DialQueueSource source, int interval) {
+        startFromSource(source, interval, null);
+    }
+    
+    /**
+     * @param restored 从检查点恢复时的会话，恢复统计并以暂停状态开始
+     */
+    private void startFromSource(DialQueueSource source, int interval, DialSession restored) {
+        if (isDialing) {
+            Log.w(TAG, "Dialing already in progress");
+            source.close();
+            return;
+        }
+        
+        if (queueSource != null) {
+            queueSource.close();
+        }
+        this.queueSource = source;
+        this.acceptsCallbacks = source instanceof DialScheduler;
         this.dialInterval = interval;
-        this.currentIndex = 0;
-        this.totalDialed = 0;
-        this.successCount = 0;
-        this.failedCount = 0;
-        this.startTime = System.currentTimeMillis();
+        if (restored != null) {
+            this.baseIndex = restored.getCurrentIndex();
+            this.currentIndex = restored.getCurrentIndex();
+            this.totalDialed = restored.getTotalDialed();
+            this.successCount = restored.getSuccessCount();
+            this.failedCount = restored.getFailedCount();
+            this.startTime = restored.getStartTime();
+        } else {
+            this.baseIndex = 0;
+            this.currentIndex = 0;
+            this.totalDialed = 0;
+            this.successCount = 0;
+            this.failedCount = 0;
+            this.startTime = System.currentTimeMillis();
+        }
         this.isDialing = true;
-        this.isPaused = false;
+        this.isPaused = restored != null;
+        this.queueCheckpointed = false;
+        this.journaledChanges = 0;
+        resetCallState();
+        
+        callStateDriven = callStateMonitor.start();
+        if (!callStateDriven) {
+            Log.w(TAG, "Call state unavailable, falling back to fixed interval dialing");
+        }
+        
+        pacing.setBaseGap(interval);
+        pacing.reset();
+        if (callStateDriven && adaptivePacing) {
+            seedPacing();
+        }
+        
+        if (source instanceof PagedDialQueueSource) {
+            ((PagedDialQueueSource) source).prefetch();
+        }
         
-        // 根据策略排序队列
-        sortQueue();
+        Log.d(TAG, "Starting auto dialer with " + queueSource.size() + " customers, strategy: " + dialStrategy);
         
-        Log.d(TAG, "Starting auto dialer with " + dialQueue.size() + " customers");
+        checkpoint(true);
+        
+        if (restored != null) {
+            updateNotification("自动拨号已恢复，点击继续");
+            notifyStatusUpdate();
+            return;
+        }
         
         // 更新通知
         updateNotification("自动拨号进行中...");
@@ -145,11 +400,225 @@ public class AutoDialerService extends Service {
         dialNext();
     }
     
+    /**
+     * 以客户id开始新会话（拨号线程），客户从本地数据库读取，未缓存的跳过
+     */
+    private void startFromIds(int[] ids, String strategy, int interval) {
+        if (ids == null || ids.length == 0) {
+            return;
+        }
+        List<Customer> customers = loadCustomersInOrder(ids);
+        if (customers.size() < ids.length) {
+            Log.w(TAG, "Skipped " + (ids.length - customers.size()) + " customers missing from local cache");
+        }
+        startWithStrategyName(customers, strategy != null ? strategy : DialStrategies.WEIGHTED, interval);
+    }
+    
+    /**
+     * 从检查点恢复会话（拨号线程）
+     */
+    private void restoreSession() {
+        if (isDialing) {
+            return;
+        }
+        long begin = SystemClock.elapsedRealtime();
+        
+        DialSession session;
+        List<DialSessionChange> changes;
+        try {
+            session = checkpointer.load();
+            changes = session != null ? checkpointer.loadChanges() : null;
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to load session: " + e.getMessage());
+            return;
+        }
+        if (session == null) {
+            return;
+        }
+        
+        int[] ids = DialSession.unpackIds(session.getQueueIds());
+        int cursor = Math.min(Math.max(session.getCursor(), 0), ids.length);
+        int[] remaining = applyChanges(Arrays.copyOfRange(ids, cursor, ids.length), changes);
+        if (remaining.length == 0) {
+            checkpointer.clear();
+            return;
+        }
+        
+        DialQueueSource source;
+        if ("scheduler".equals(session.getStrategy())) {
+            // 调度器需要全部客户参与排序：先放入本地已缓存的，其余在后台从服务器读取后加入
+            List<Customer> customers = loadCustomersInOrder(remaining);
+            // 同时加载历史接通率，供策略排序使用
+            callHistory.applyTo(customers);
+            DialScheduler scheduler = new DialScheduler(customers);
+            if (customers.size() < remaining.length) {
+                int[] missing = missingIds(remaining, customers);
+                scheduler.addUnresolved(missing);
+                fetchUnresolved(scheduler, missing);
+            }
+            source = scheduler;
+        } else {
+            source = new RestoredDialQueueSource(remaining, AppDatabase.getInstance(this).customerDao(),
+                    OdooApiClient.getInstance(this), callHistory);
+        }
+        dialStrategy = session.getStrategy();
+        startFromSource(source, session.getDialInterval(), session);
+        
+        Log.d(TAG, "Session restored: " + remaining.length + " customers in "
+                + (SystemClock.elapsedRealtime() - begin) + "ms");
+    }
+    
+    /**
+     * 在完整id列表上按顺序重放追加的队列变化
+     */
+    private static int[] applyChanges(int[] ids, List<DialSessionChange> changes) {
+        if (changes.isEmpty()) {
+            return ids;
+        }
+        LinkedHashSet<Integer> remaining = new LinkedHashSet<>(ids.length * 2);
+        for (int id : ids) {
+            remaining.add(id);
+        }
+        for (DialSessionChange change : changes) {
+            if (change.isAdded()) {
+                remaining.add(change.getCustomerId());
+            } else {
+                remaining.remove(change.getCustomerId());
+            }
+        }
+        int[] result = new int[remaining.size()];
+        int i = 0;
+        for (int id : remaining) {
+            result[i++] = id;
+        }
+        return result;
+    }
+    
+    private static int[] missingIds(int[] ids, List<Customer> found) {
+        HashSet<Integer> foundIds = new HashSet<>(found.size() * 2);
+        for (Customer customer : found) {
+            foundIds.add(customer.getId());
+        }
+        int[] missing = new int[ids.length];
+        int count = 0;
+        for (int id : ids) {
+            if (!foundIds.contains(id)) {
+                missing[count++] = id;
+            }
+        }
+        return Arrays.copyOf(missing, count);
+    }
+    
+    /**
+     * 在后台从服务器读取本地未缓存的客户，完成后在拨号线程加入调度器
+     * 读取失败的客户从队列中移除
+     */
+    private void fetchUnresolved(DialScheduler scheduler, int[] ids) {
+        ioExecutor.execute(() -> {
+            List<Customer> fetched = new ArrayList<>(ids.length);
+            try {
+                OdooApiClient apiClient = OdooApiClient.getInstance(this);
+                for (int from = 0; from < ids.length; from += RESTORE_BATCH_SIZE) {
+                    int[] batch = Arrays.copyOfRange(ids, from, Math.min(ids.length, from + RESTORE_BATCH_SIZE));
+                    apiClient.readCustomers(batch, CustomerFieldSet.DIAL_QUEUE, fetched::add);
+                }
+                callHistory.applyTo(fetched);
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to fetch " + ids.length + " uncached customers: " + e.getMessage());
+            }
+            handler.post(() -> {
+                if (queueSource != scheduler) {
+                    return;
+                }
+                scheduler.resolve(ids, fetched);
+                notifyStatusUpdate();
+            });
+        });
+    }
+    
+    /**
+     * 按id顺序从本地数据库读取客户，已删除的客户跳过
+     */
+    private List<Customer> loadCustomersInOrder(int[] ids) {
+        Map<Integer, Customer> byId = new HashMap<>(ids.length * 2);
+        for (int from = 0; from < ids.length; from += RESTORE_BATCH_SIZE) {
+            int[] batch = Arrays.copyOfRange(ids, from, Math.min(ids.length, from + RESTORE_BATCH_SIZE));
+            for (Customer customer : AppDatabase.getInstance(this).customerDao().getCustomersByIds(batch)) {
+                byId.put(customer.getId(), customer);
+            }
+        }
+        
+        List<Customer> customers = new ArrayList<>(byId.size());
+        for (int id : ids) {
+            Customer customer = byId.get(id);
+            if (customer != null) {
+                customers.add(customer);
+            }
+        }
+        return customers;
+    }
+    
+    /**
+     * 写入会话检查点
+     * 完整id列表只在队列开始时写入一次（分页数据源在取得id快照后），之后只更新游标、统计和队列增减；
+     * 追加的增减累积过多时重写完整列表，恢复时不必重放过长的记录
+     *
+     * @param full 是否写入完整队列
+     */
+    private void checkpoint(boolean full) {
+        if (!isDialing || !(queueSource instanceof SessionCheckpointSource)) {
+            return;
+        }
+        SessionCheckpointSource source = (SessionCheckpointSource) queueSource;
+        if (full || !queueCheckpointed) {
+            saveFullCheckpoint(source);
+            return;
+        }
+        
+        List<DialSessionChange> changes = source.drainChanges();
+        journaledChanges += changes.size();
+        if (journaledChanges > Math.max(queueSource.size(), MIN_COMPACT_CHANGES)) {
+            saveFullCheckpoint(source);
+            return;
+        }
+        checkpointer.progress(changes, source.getCursor(), currentIndex, totalDialed, successCount, failedCount);
+    }
+    
+    private void saveFullCheckpoint(SessionCheckpointSource source) {
+        int[] ids = source.getQueueIds();
+        if (ids == null) {
+            // 分页数据源尚未取得id快照，之后的检查点再写入
+            return;
+        }
+        // 完整id列表已包含此前的增减
+        source.drainChanges();
+        
+        DialSession session = new DialSession();
+        session.setStrategy(queueSource instanceof DialScheduler ? "scheduler" : dialStrategy);
+        session.setDialInterval(dialInterval);
+        session.setStartTime(startTime);
+        session.setQueueIds(DialSession.packIds(ids));
+        session.setCursor(source.getCursor());
+        session.setCurrentIndex(currentIndex);
+        session.setTotalDialed(totalDialed);
+        session.setSuccessCount(successCount);
+        session.setFailedCount(failedCount);
+        session.setUpdatedAt(System.currentTimeMillis());
+        checkpointer.save(session);
+        queueCheckpointed = true;
+        journaledChanges = 0;
+    }
+    
     /**
      * 暂停拨号
      */
     public void pauseDialing() {
+        handler.post(this::pauseOnEngine);
+    }
+    
+    private void pauseOnEngine() {
         isPaused = true;
+        // 通话中暂停不影响当前通话，挂断后不再拨打下一个
         handler.removeCallbacks(dialRunnable);
         updateNotification("自动拨号已暂停");
         notifyStatusUpdate();
@@ -160,10 +629,15 @@ public class AutoDialerService extends Service {
      * 恢复拨号
      */
     public void resumeDialing() {
+        handler.post(this::resumeOnEngine);
+    }
+    
+    private void resumeOnEngine() {
         if (!isDialing) return;
         isPaused = false;
         updateNotification("自动拨号进行中...");
         notifyStatusUpdate();
+        // 通话进行中时由挂断后的流程继续
         dialNext();
         Log.d(TAG, "Dialing resumed");
     }
@@ -172,10 +646,18 @@ public class AutoDialerService extends Service {
      * 停止拨号
      */
     public void stopDialing() {
+        handler.post(this::stopOnEngine);
+    }
+    
+    private void stopOnEngine() {
         isDialing = false;
         isPaused = false;
         handler.removeCallbacks(dialRunnable);
+        callStateMonitor.stop();
+        resetCallState();
         currentCustomer = null;
+        queueSource.close();
+        checkpointer.clear();
         updateNotification("自动拨号已停止");
         notifyStatusUpdate();
         Log.d(TAG, "Dialing stopped");
@@ -185,31 +667,103 @@ public class AutoDialerService extends Service {
      * 跳过当前客户
      */
     public void skipCurrent() {
-        if (currentCustomer != null) {
-            failedCount++;
-            if (listener != null) {
-                listener.onDialComplete(currentCustomer, false);
-            }
+        handler.post(this::skipOnEngine);
+    }
+    
+    private void skipOnEngine() {
+        switch (callPhase) {
+            case OFFHOOK:
+            case RINGING:
+                // 通话仍在进行，挂断后按失败处理，避免与下一通重叠
+                skipRequested = true;
+                return;
+            case WRAP_UP:
+                // 已挂断：不再等待通话记录，立即按跳过完成记录
+                skipRequested = true;
+                handler.removeCallbacks(callEndRunnable);
+                onCallEnded();
+                break;
+            case DIALING:
+                // 尚未摘机，与拨号超时一样按未拨通记录
+                handler.removeCallbacks(dialTimeoutRunnable);
+                recordNotConnected();
+                break;
+            default:
+                // 整理时间内，上一个客户的结果已经记录
+                break;
         }
+        handler.removeCallbacks(dialRunnable);
         dialNext();
     }
     
+    /**
+     * 客户信息（如等级）变化后调整其在队列中的位置
+     * 仅scheduler策略支持动态调整
+     */
+    public void updateCustomer(Customer customer) {
+        handler.post(() -> {
+            if (queueSource instanceof DialScheduler) {
+                ((DialScheduler) queueSource).update(customer);
+                notifyStatusUpdate();
+            }
+        });
+    }
+    
+    /**
+     * 安排回访，到期后该客户立即排到队首
+     * 仅scheduler策略支持
+     */
+    public void scheduleCallback(Customer customer, long dueTime) {
+        handler.post(() -> {
+            if (queueSource instanceof DialScheduler) {
+                ((DialScheduler) queueSource).scheduleCallback(customer, dueTime);
+                notifyStatusUpdate();
+            } else {
+                Log.w(TAG, "Callback ignored, current queue does not support scheduling");
+            }
+        });
+    }
+    
+    /**
+     * 把到期回访交给正在进行的拨号会话，任意线程调用
+     *
+     * @return 没有正在运行且支持回访的拨号会话时返回false，由调用方改为通知提醒
+     */
+    public static boolean dispatchCallback(Customer customer, long dueTime) {
+        AutoDialerService service = active;
+        if (service == null || !service.acceptsCallbacks || !service.isDialing()) {
+            return false;
+        }
+        service.scheduleCallback(customer, dueTime);
+        return true;
+    }
+    
     /**
      * 拨打下一个客户
      */
     private void dialNext() {
-        if (!isDialing || isPaused) {
+        // 上一通尚未结束或线路被占用时不拨打，挂断后会重新调度
+        if (!isDialing || isPaused || callPhase != CallPhase.IDLE || lineBusy) {
             return;
         }
+        handler.removeCallbacks(dialRunnable);
         
-        // 检查是否完成
-        if (currentIndex >= dialQueue.size()) {
-            completeDialing();
+        // 获取下一个客户
+        Customer next = queueSource.poll();
+        if (next == null) {
+            // 检查是否完成
+            if (queueSource.isExhausted()) {
+                completeDialing();
+            } else {
+                // 下一页仍在加载
+                handler.removeCallbacks(dialRunnable);
+                handler.postDelayed(dialRunnable, QUEUE_WAIT_MS);
+            }
             return;
         }
         
-        // 获取下一个客户
-        currentCustomer = dialQueue.get(currentIndex);
+        currentCustomer = next;
+        resultRecorded = false;
         currentIndex++;
         totalDialed++;
         
@@ -217,61 +771,244 @@ public class AutoDialerService extends Service {
         if (!currentCustomer.isValidPhone()) {
             Log.w(TAG, "Invalid phone number for customer: " + currentCustomer.getName());
             failedCount++;
-            if (listener != null) {
-                listener.onDialComplete(currentCustomer, false);
-            }
+            dispatchDialComplete(currentCustomer, false);
+            notifyStatusUpdate();
             // 继续下一个
-            handler.postDelayed(this::dialNext, 1000);
+            handler.postDelayed(dialRunnable, 1000);
             return;
         }
         
         // 通知开始拨号
-        if (listener != null) {
-            listener.onDialStart(currentCustomer);
-        }
+        Customer dialing = currentCustomer;
+        dispatch(l -> l.onDialStart(dialing));
         
         // 更新通知
         updateNotification("正在拨打: " + currentCustomer.getName());
         notifyStatusUpdate();
         
-        // 执行拨号
-        makeCall(currentCustomer.getPhone());
+        // 记录拨号时间，通话结束后连同结果写入通话历史
+        dialStartTime = System.currentTimeMillis();
         
-        // 记录拨号时间
-        currentCustomer.setLastCallTime(System.currentTimeMillis());
-        currentCustomer.setCallCount(currentCustomer.getCallCount() + 1);
+        // 执行拨号
+        if (!makeCall(currentCustomer.getPhone())) {
+            notifyStatusUpdate();
+            handler.postDelayed(dialRunnable, dialInterval);
+            return;
+        }
         
-        // 延迟拨打下一个
-        handler.postDelayed(dialRunnable, dialInterval);
+        if (callStateDriven) {
+            // 等待摘机，超时视为未拨出
+            callPhase = CallPhase.DIALING;
+            handler.postDelayed(dialTimeoutRunnable, dialTimeout);
+        } else {
+            // 固定间隔模式：拨出即视为成功，无法判断是否接通
+            successCount++;
+            callHistory.recordCall(currentCustomer, dialStartTime, false, 0);
+            dispatchDialComplete(currentCustomer, true);
+            notifyStatusUpdate();
+            handler.postDelayed(dialRunnable, dialInterval);
+        }
     }
     
     private final Runnable dialRunnable = this::dialNext;
+    private final Runnable dialTimeoutRunnable = this::onDialTimeout;
+    private final Runnable callEndRunnable = this::onCallEnded;
+    
+    /**
+     * 通话状态变化（拨号线程，由CallStateMonitor投递到engineThread）
+     */
+    private void onCallStateChanged(int state) {
+        switch (state) {
+            case TelephonyManager.CALL_STATE_RINGING:
+                if (callPhase == CallPhase.DIALING) {
+                    callPhase = CallPhase.RINGING;
+                } else if (callPhase != CallPhase.OFFHOOK) {
+                    // 来电，暂缓下一通
+                    holdForForeignCall();
+                }
+                break;
+            
+            case TelephonyManager.CALL_STATE_OFFHOOK:
+                if (callPhase == CallPhase.DIALING || callPhase == CallPhase.RINGING) {
+                    callPhase = CallPhase.OFFHOOK;
+                    offhookTime = System.currentTimeMillis();
+                    handler.removeCallbacks(dialTimeoutRunnable);
+                    notifyStatusUpdate();
+                } else if (callPhase != CallPhase.OFFHOOK) {
+                    holdForForeignCall();
+                }
+                break;
+            
+            case TelephonyManager.CALL_STATE_IDLE:
+                if (callPhase == CallPhase.OFFHOOK || callPhase == CallPhase.RINGING) {
+                    // 挂断，等待通话记录写入后判定结果
+                    callPhase = CallPhase.WRAP_UP;
+                    callEndTime = System.currentTimeMillis();
+                    handler.postDelayed(callEndRunnable, CALL_LOG_DELAY_MS);
+                    notifyStatusUpdate();
+                } else if (lineBusy) {
+                    lineBusy = false;
+                    callEndTime = System.currentTimeMillis();
+                    scheduleAfterWrapUp();
+                }
+                break;
+        }
+    }
+    
+    /**
+     * 挂断后判定是否接通，整理时间结束后拨打下一个
+     */
+    private void onCallEnded() {
+        if (callPhase != CallPhase.WRAP_UP || currentCustomer == null) {
+            return;
+        }
+        
+        int talkSeconds = CallLogLookup.findOutgoingDuration(this, currentCustomer.getPhone(),
+                dialStartTime - CALL_LOG_SLACK_MS);
+        
+        Log.d(TAG, "Call ended: offhook " + (callEndTime - offhookTime) + "ms, talk " + talkSeconds + "s");
+        
+        boolean success;
+        if (talkSeconds == CallLogLookup.UNKNOWN) {
+            // 查不到通话记录（无权限或记录延迟）时无法区分是否接听：
+            // 界面计数按已拨通处理，但不计入节奏和接通率统计，通话记录标记为结果未知
+            success = !skipRequested;
+            callHistory.recordUnknownCall(currentCustomer, dialStartTime);
+        } else {
+            boolean answered = talkSeconds > 0;
+            success = answered && !skipRequested;
+            // 摘机到挂断的时长减去通话时长即为振铃时长
+            long offhookMs = callEndTime - offhookTime;
+            long talkMs = talkSeconds * 1000L;
+            pacing.record(offhookMs - talkMs, answered, talkMs);
+            AnswerRateStats.getInstance().record(currentCustomer, dialStartTime, answered);
+            callHistory.recordCall(currentCustomer, dialStartTime, answered, talkSeconds);
+        }
+        
+        if (success) {
+            successCount++;
+        } else {
+            failedCount++;
+        }
+        dispatchDialComplete(currentCustomer, success);
+        
+        callPhase = CallPhase.IDLE;
+        skipRequested = false;
+        notifyStatusUpdate();
+        scheduleAfterWrapUp();
+    }
+    
+    /**
+     * 发出拨号后一直没有摘机（拨号界面被拦截、无信号等）
+     */
+    private void onDialTimeout() {
+        if (callPhase != CallPhase.DIALING) {
+            return;
+        }
+        Log.w(TAG, "No offhook within " + dialTimeout + "ms, skipping");
+        recordNotConnected();
+        scheduleAfterWrapUp();
+    }
+    
+    /**
+     * 当前客户未拨通（未摘机）
+     */
+    private void recordNotConnected() {
+        if (!resultRecorded) {
+            failedCount++;
+            callHistory.recordCall(currentCustomer, dialStartTime, false, 0);
+            dispatchDialComplete(currentCustomer, false);
+        }
+        callPhase = CallPhase.IDLE;
+        callEndTime = System.currentTimeMillis();
+        notifyStatusUpdate();
+    }
+    
+    /**
+     * 非本服务发起的通话占线，挂断后再继续
+     */
+    private void holdForForeignCall() {
+        lineBusy = true;
+        handler.removeCallbacks(dialRunnable);
+    }
+    
+    /**
+     * 从挂断时刻起经过整理时间后拨打下一个
+     */
+    private void scheduleAfterWrapUp() {
+        long wrapUp = adaptivePacing ? pacing.getGapMs() : dialInterval;
+        long remaining = wrapUp - (System.currentTimeMillis() - callEndTime);
+        handler.removeCallbacks(dialRunnable);
+        handler.postDelayed(dialRunnable, Math.max(0, remaining));
+    }
+    
+    /**
+     * 用最近的本地通话记录初始化节奏的先验接通率和通话时长
+     */
+    private void seedPacing() {
+        ioExecutor.execute(() -> {
+            List<CallRecord> calls;
+            try {
+                calls = AppDatabase.getInstance(this).callLogDao().getLatestCalls(PACING_SEED_SIZE);
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to load recent calls: " + e.getMessage());
+                return;
+            }
+            if (calls.isEmpty()) {
+                return;
+            }
+            int known = 0;
+            int answered = 0;
+            long talkMs = 0;
+            for (CallRecord call : calls) {
+                if (!call.isOutcomeKnown()) {
+                    continue;
+                }
+                known++;
+                if (call.isAnswered()) {
+                    answered++;
+                    talkMs += call.getTalkSeconds() * 1000L;
+                }
+            }
+            if (known == 0) {
+                return;
+            }
+            double answerRate = answered / (double) known;
+            long avgTalkMs = answered > 0 ? talkMs / answered : 0;
+            handler.post(() -> pacing.seed(answerRate, avgTalkMs));
+        });
+    }
+    
+    private void resetCallState() {
+        handler.removeCallbacks(dialTimeoutRunnable);
+        handler.removeCallbacks(callEndRunnable);
+        callPhase = CallPhase.IDLE;
+        lineBusy = false;
+        skipRequested = false;
+    }
     
     /**
      * 执行拨打电话
+     *
+     * @return 拨号界面是否成功启动
      */
-    private void makeCall(String phoneNumber) {
+    private boolean makeCall(String phoneNumber) {
         try {
             Intent callIntent = new Intent(Intent.ACTION_CALL);
             callIntent.setData(Uri.parse("tel:" + phoneNumber));
             callIntent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
             startActivity(callIntent);
             
-            successCount++;
-            
             Log.d(TAG, "Calling: " + phoneNumber);
-            
-            if (listener != null) {
-                listener.onDialComplete(currentCustomer, true);
-            }
+            return true;
         } catch (Exception e) {
             Log.e(TAG, "Failed to make call: " + e.getMessage());
             failedCount++;
             
-            if (listener != null) {
-                listener.onError("拨号失败: " + e.getMessage());
-                listener.onDialComplete(currentCustomer, false);
-            }
+            String error = "拨号失败: " + e.getMessage();
+            dispatch(l -> l.onError(error));
+            dispatchDialComplete(currentCustomer, false);
+            return false;
         }
     }
     
@@ -281,128 +1018,98 @@ public class AutoDialerService extends Service {
     private void completeDialing() {
         isDialing = false;
         isPaused = false;
+        callStateMonitor.stop();
+        resetCallState();
         currentCustomer = null;
+        queueSource.close();
+        checkpointer.clear();
         
         long elapsedTime = System.currentTimeMillis() - startTime;
         
         updateNotification("拨号完成 - 成功: " + successCount + " 失败: " + failedCount);
         notifyStatusUpdate();
         
-        if (listener != null) {
-            listener.onQueueComplete();
-        }
+        dispatch(DialerListener::onQueueComplete);
         
         Log.d(TAG, String.format("Dialing completed. Total: %d, Success: %d, Failed: %d, Time: %dms",
                 totalDialed, successCount, failedCount, elapsedTime));
     }
     
     /**
-     * 根据策略排序队列
+     * 队列总数，未知时为-1
+     * DialScheduler的size()是剩余数量，需加上已拨打数量
      */
-    private void sortQueue() {
-        switch (dialStrategy) {
-            case "priority":
-                // 按优先级排序（A级优先）
-                dialQueue.sort((c1, c2) -> Integer.compare(c1.getPriority(), c2.getPriority()));
-                break;
-                
-            case "time":
-                // 按最后联系时间排序（很久没联系的优先）
-                dialQueue.sort((c1, c2) -> Long.compare(c1.getLastCallTime(), c2.getLastCallTime()));
-                break;
-                
-            case "random":
-                // 随机排序
-                java.util.Collections.shuffle(dialQueue);
-                break;
-                
-            default:
-                Log.w(TAG, "Unknown dial strategy: " + dialStrategy);
+    private int queueTotal() {
+        int size = queueSource.size();
+        if (size < 0) {
+            return -1;
         }
+        return (queueSource instanceof DialScheduler ? currentIndex : baseIndex) + size;
     }
     
     /**
-     * 创建通知渠道
+     * 更新通知（合并后发布）
      */
-    private void createNotificationChannel() {
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
-            NotificationChannel channel = new NotificationChannel(
-                    CHANNEL_ID,
-                    "自动拨号服务",
-                    NotificationManager.IMPORTANCE_LOW
-            );
-            channel.setDescription("用于显示自动拨号状态");
-            
-            NotificationManager manager = getSystemService(NotificationManager.class);
-            if (manager != null) {
-                manager.createNotificationChannel(channel);
-            }
-        }
+    private void updateNotification(String text) {
+        notifier.update(text, currentIndex, queueTotal(), successCount, failedCount, isDialing);
     }
     
     /**
-     * 创建通知
+     * 通知状态更新
      */
-    private Notification createNotification() {
-        Intent intent = new Intent(this, AutoDialerActivity.class);
-        PendingIntent pendingIntent = PendingIntent.getActivity(
-                this, 0, intent,
-                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
-        );
-        
-        return new NotificationCompat.Builder(this, CHANNEL_ID)
-                .setContentTitle("智能电销王")
-                .setContentText("自动拨号服务运行中...")
-                .setSmallIcon(R.drawable.ic_phone)
-                .setContentIntent(pendingIntent)
-                .setOngoing(true)
-                .build();
+    private void notifyStatusUpdate() {
+        if (publishStatus() == null) {
+            return;
+        }
+        checkpoint(false);
+        if (listener == null) {
+            return;
+        }
+        // 尚未送达的状态事件会在送达时读取最新快照，不必重复投递
+        if (statusDeliveryPending.compareAndSet(false, true)) {
+            mainHandler.post(statusDelivery);
+        }
     }
     
     /**
-     * 更新通知
+     * 发布状态快照，只有拨号线程写入
+     *
+     * @return 新快照；内容未变化时返回null
      */
-    private void updateNotification(String text) {
-        Intent intent = new Intent(this, AutoDialerActivity.class);
-        PendingIntent pendingIntent = PendingIntent.getActivity(
-                this, 0, intent,
-                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
-        );
-        
-        String progress = String.format("进度: %d/%d | 成功: %d | 失败: %d",
-                currentIndex, dialQueue.size(), successCount, failedCount);
-        
-        Notification notification = new NotificationCompat.Builder(this, CHANNEL_ID)
-                .setContentTitle("智能电销王 - " + text)
-                .setContentText(progress)
-                .setSmallIcon(R.drawable.ic_phone)
-                .setContentIntent(pendingIntent)
-                .setOngoing(isDialing)
-                .build();
-        
-        NotificationManager manager = getSystemService(NotificationManager.class);
-        if (manager != null) {
-            manager.notify(NOTIFICATION_ID, notification);
+    private DialerStatus publishStatus() {
+        int total = queueTotal();
+        DialerStatus current = status.get();
+        if (current.sameAs(total, currentIndex, successCount, failedCount,
+                isPaused, isDialing, startTime, callPhase)) {
+            return null;
         }
+        DialerStatus snapshot = new DialerStatus(total, currentIndex, successCount, failedCount,
+                isPaused, isDialing, startTime, callPhase);
+        status.set(snapshot);
+        return snapshot;
     }
     
     /**
-     * 通知状态更新
+     * 当前客户的结果已计数，通知监听器
      */
-    private void notifyStatusUpdate() {
-        if (listener != null) {
-            long elapsed = isDialing ? System.currentTimeMillis() - startTime : 0;
-            DialerStatus status = new DialerStatus(
-                    dialQueue.size(),
-                    currentIndex,
-                    successCount,
-                    failedCount,
-                    isPaused,
-                    isDialing,
-                    elapsed
-            );
-            listener.onStatusUpdate(status);
+    private void dispatchDialComplete(Customer customer, boolean success) {
+        resultRecorded = true;
+        dispatch(l -> l.onDialComplete(customer, success));
+    }
+    
+    /**
+     * 把监听事件投递到主线程，送达时监听器已被移除则丢弃
+     */
+    private void dispatch(ListenerEvent event) {
+        if (listener == null) {
+            return;
         }
+        mainHandler.post(() -> {
+            DialerListener current = listener;
+            if (current != null) {
+                event.deliver(current);
+            }
+        });
     }
     
     // Getters and Setters
@@ -411,34 +1118,63 @@ public class AutoDialerService extends Service {
     }
     
     public boolean isDialing() {
-        return isDialing;
+        return status.get().isRunning;
     }
     
     public boolean isPaused() {
-        return isPaused;
+        return status.get().isPaused;
     }
     
     public Customer getCurrentCustomer() {
         return currentCustomer;
     }
     
+    public CallPhase getCallPhase() {
+        return callPhase;
+    }
+    
+    public PacingController getPacing() {
+        return pacing;
+    }
+    
+    /**
+     * 开启时整理时间由PacingController根据最近的通话自动调整，关闭时固定为dialInterval
+     */
+    public void setAdaptivePacing(boolean enabled) {
+        this.adaptivePacing = enabled;
+    }
+    
+    /**
+     * 发出拨号后等待摘机的最长时间
+     */
+    public void setDialTimeout(long dialTimeoutMs) {
+        this.dialTimeout = dialTimeoutMs;
+    }
+    
+    /**
+     * 当前状态快照，任意线程调用，不加锁、不分配对象
+     */
     public DialerStatus getStatus() {
-        long elapsed = isDialing ? System.currentTimeMillis() - startTime : 0;
-        return new DialerStatus(
-                dialQueue.size(),
-                currentIndex,
-                successCount,
-                failedCount,
-                isPaused,
-                isDialing,
-                elapsed
-        );
+        return status.get();
     }
     
     @Override
     public void onDestroy() {
         super.onDestroy();
-        handler.removeCallbacks(dialRunnable);
+        if (active == this) {
+            active = null;
+        }
+        acceptsCallbacks = false;
+        // 丢弃尚未执行的拨号计时，在拨号线程上释放资源后退出
+        handler.removeCallbacksAndMessages(null);
+        handler.post(() -> {
+            notifier.cancelPending();
+            callStateMonitor.stop();
+            resetCallState();
+            queueSource.close();
+        });
+        engineThread.quitSafely();
+        ioExecutor.shutdown();
         stopForeground(true);
         Log.d(TAG, "Service destroyed");
     }
@@ -0,0 +1,48 @@
+package com.salesdialer.service;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.provider.CallLog;
+import android.telephony.PhoneNumberUtils;
+import android.util.Log;
+
+/**
+ * 通话记录查询
+ * 通话状态无法区分去电是否被接听，挂断后通过系统通话记录中的通话时长判断
+ */
+public class CallLogLookup {
+    
+    private static final String TAG = "CallLogLookup";
+    
+    // 未找到记录或无权限
+    public static final int UNKNOWN = -1;
+    
+    private CallLogLookup() {
+    }
+    
+    /**
+     * 查询指定时间之后拨出到该号码的最近一次通话时长
+     *
+     * @return 通话时长（秒），0表示未接通，UNKNOWN表示无法确定
+     */
+    public static int findOutgoingDuration(Context context, String phoneNumber, long sinceMillis) {
+        String[] projection = {CallLog.Calls.NUMBER, CallLog.Calls.DURATION};
+        String selection = CallLog.Calls.TYPE + " = ? AND " + CallLog.Calls.DATE + " >= ?";
+        String[] args = {String.valueOf(CallLog.Calls.OUTGOING_TYPE), String.valueOf(sinceMillis)};
+        
+        try (Cursor cursor = context.getContentResolver().query(CallLog.Calls.CONTENT_URI,
+                projection, selection, args, CallLog.Calls.DATE + " DESC")) {
+            if (cursor == null) {
+                return UNKNOWN;
+            }
+            while (cursor.moveToNext()) {
+                if (PhoneNumberUtils.compare(phoneNumber, cursor.getString(0))) {
+                    return cursor.getInt(1);
+                }
+            }
+        } catch (SecurityException e) {
+            Log.w(TAG, "No call log permission: " + e.getMessage());
+        }
+        return UNKNOWN;
+    }
+}
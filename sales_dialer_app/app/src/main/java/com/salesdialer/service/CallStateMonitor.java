@@ -0,0 +1,172 @@
+package com.salesdialer.service;
+
+import android.content.Context;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.telephony.PhoneStateListener;
+import android.telephony.TelephonyCallback;
+import android.telephony.TelephonyManager;
+import android.util.Log;
+
+import androidx.annotation.RequiresApi;
+
+/**
+ * 通话状态监听
+ * Android 12及以上使用TelephonyCallback，以下使用PhoneStateListener；
+ * 另外接收CallStateReceiver转发的PHONE_STATE广播作为补充，重复的状态只回调一次
+ *
+ * <p>注意：去电不会经过RINGING，发出拨号后直接进入OFFHOOK，挂断后回到IDLE；
+ * 对方是否接听需要在IDLE后查询通话记录。回调在构造时指定的Looper上执行。</p>
+ */
+public class CallStateMonitor {
+    
+    private static final String TAG = "CallStateMonitor";
+    
+    public interface Listener {
+        /**
+         * @param state TelephonyManager.CALL_STATE_IDLE / CALL_STATE_RINGING / CALL_STATE_OFFHOOK
+         */
+        void onCallStateChanged(int state);
+    }
+    
+    // 当前正在监听的实例，供CallStateReceiver转发广播
+    private static volatile CallStateMonitor active;
+    
+    private final TelephonyManager telephonyManager;
+    private final Listener listener;
+    private final Handler callbackHandler;
+    
+    private Object callback;
+    private int lastState = -1;
+    
+    public CallStateMonitor(Context context, Looper looper, Listener listener) {
+        this.telephonyManager = (TelephonyManager) context.getApplicationContext()
+                .getSystemService(Context.TELEPHONY_SERVICE);
+        this.callbackHandler = new Handler(looper);
+        this.listener = listener;
+    }
+    
+    /**
+     * 开始监听
+     * Android 12以下须在带Looper的线程调用（AutoDialerService在拨号引擎线程调用）
+     *
+     * @return 无法监听（无权限或无电话功能）时返回false，调用方应退回定时拨号
+     */
+    public boolean start() {
+        if (callback != null) {
+            return true;
+        }
+        if (telephonyManager == null) {
+            return false;
+        }
+        
+        lastState = -1;
+        try {
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+                callback = registerCallback();
+            } else {
+                callback = registerListener();
+            }
+        } catch (SecurityException e) {
+            Log.w(TAG, "Cannot monitor call state: " + e.getMessage());
+            callback = null;
+            return false;
+        }
+        
+        active = this;
+        Log.d(TAG, "Call state monitor started");
+        return true;
+    }
+    
+    /**
+     * 停止监听
+     */
+    public void stop() {
+        if (callback == null) {
+            return;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+            telephonyManager.unregisterTelephonyCallback((TelephonyCallback) callback);
+        } else {
+            telephonyManager.listen((PhoneStateListener) callback, PhoneStateListener.LISTEN_NONE);
+        }
+        callback = null;
+        if (active == this) {
+            active = null;
+        }
+        Log.d(TAG, "Call state monitor stopped");
+    }
+    
+    public boolean isMonitoring() {
+        return callback != null;
+    }
+    
+    /**
+     * 转发PHONE_STATE广播中的状态（TelephonyManager.EXTRA_STATE）
+     */
+    public static void dispatchBroadcast(String extraState) {
+        CallStateMonitor monitor = active;
+        if (monitor == null || extraState == null) {
+            return;
+        }
+        
+        final int state;
+        if (TelephonyManager.EXTRA_STATE_OFFHOOK.equals(extraState)) {
+            state = TelephonyManager.CALL_STATE_OFFHOOK;
+        } else if (TelephonyManager.EXTRA_STATE_RINGING.equals(extraState)) {
+            state = TelephonyManager.CALL_STATE_RINGING;
+        } else if (TelephonyManager.EXTRA_STATE_IDLE.equals(extraState)) {
+            state = TelephonyManager.CALL_STATE_IDLE;
+        } else {
+            return;
+        }
+        monitor.callbackHandler.post(() -> monitor.dispatch(state));
+    }
+    
+    /**
+     * 在回调线程执行，相同状态只回调一次
+     */
+    private void dispatch(int state) {
+        if (callback == null || state == lastState) {
+            return;
+        }
+        lastState = state;
+        listener.onCallStateChanged(state);
+    }
+    
+    /**
+     * 公开的无参构造把回调绑定到当前线程的Looper，
+     * 在回调线程上创建时直接处理，否则转投到回调线程
+     */
+    @SuppressWarnings("deprecation")
+    private Object registerListener() {
+        PhoneStateListener phoneStateListener = new PhoneStateListener() {
+            @Override
+            public void onCallStateChanged(int state, String phoneNumber) {
+                if (Looper.myLooper() == callbackHandler.getLooper()) {
+                    dispatch(state);
+                } else {
+                    callbackHandler.post(() -> dispatch(state));
+                }
+            }
+        };
+        telephonyManager.listen(phoneStateListener, PhoneStateListener.LISTEN_CALL_STATE);
+        return phoneStateListener;
+    }
+    
+    @RequiresApi(api = Build.VERSION_CODES.S)
+    private Object registerCallback() {
+        CallStateCallback telephonyCallback = new CallStateCallback();
+        telephonyManager.registerTelephonyCallback(callbackHandler::post, telephonyCallback);
+        return telephonyCallback;
+    }
+    
+    @RequiresApi(api = Build.VERSION_CODES.S)
+    private class CallStateCallback extends TelephonyCallback implements TelephonyCallback.CallStateListener {
+        @Override
+        public void onCallStateChanged(int state) {
+            dispatch(state);
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.salesdialer.service;
+
+import android.app.AlarmManager;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+import android.util.Log;
+
+import androidx.core.app.NotificationCompat;
+
+import com.salesdialer.R;
+import com.salesdialer.activity.MainActivity;
+import com.salesdialer.database.AppDatabase;
+import com.salesdialer.model.Customer;
+import com.salesdialer.model.FollowUp;
+import com.salesdialer.receiver.CallbackAlarmReceiver;
+import com.salesdialer.utils.PreferenceUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 回访调度器
+ * 按FollowUp.nextFollowTime提醒回访：待回访记录由follow_ups的next_follow_time索引排序，
+ * 系统中始终只保留一个闹钟，指向最早的未处理回访，到期后批量处理并重新设定，回访再多也不会逐条唤醒
+ *
+ * <p>到期的客户优先插入正在进行的动态调度拨号队列，否则发出一条汇总通知。
+ * 已处理到的时间点保存为水位线，关机期间错过的回访在开机后补发，同一条回访不会重复提醒。</p>
+ */
+public class CallbackScheduler {
+    
+    private static final String TAG = "CallbackScheduler";
+    private static final String KEY_FIRED_UNTIL = "callback_fired_until";
+    
+    private static final String CHANNEL_ID = "callback_channel";
+    private static final int NOTIFICATION_ID = 1002;
+    private static final int ALARM_REQUEST_CODE = 2001;
+    private static final int NOTIFICATION_NAME_LIMIT = 3; // 通知中最多列出的客户姓名数
+    private static final int QUERY_BATCH_SIZE = 500; // 按id查询客户的批大小（SQLite参数上限）
+    
+    private static CallbackScheduler instance;
+    
+    private final Context context;
+    private final AppDatabase database;
+    private final AlarmManager alarmManager;
+    
+    // 查询、投递和设定闹钟串行执行
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    
+    private CallbackScheduler(Context context) {
+        this.context = context.getApplicationContext();
+        this.database = AppDatabase.getInstance(this.context);
+        this.alarmManager = (AlarmManager) this.context.getSystemService(Context.ALARM_SERVICE);
+    }
+    
+    public static synchronized CallbackScheduler getInstance(Context context) {
+        if (instance == null) {
+            instance = new CallbackScheduler(context);
+        }
+        return instance;
+    }
+    
+    /**
+     * 处理已到期的回访并重新设定闹钟
+     * 回访时间变化（新增跟进记录）和开机后调用
+     */
+    public void reschedule() {
+        executor.execute(this::refresh);
+    }
+    
+    /**
+     * 闹钟到期，由CallbackAlarmReceiver调用
+     *
+     * @param done 处理完成后执行，用于结束广播的异步处理
+     */
+    public void onAlarm(Runnable done) {
+        executor.execute(() -> {
+            try {
+                refresh();
+            } finally {
+                done.run();
+            }
+        });
+    }
+    
+    private void refresh() {
+        long now = System.currentTimeMillis();
+        try {
+            fireDue(now);
+            
+            PendingIntent alarmIntent = alarmIntent();
+            Long next = database.followUpDao().getNextCallbackTime(now);
+            if (next == null) {
+                alarmManager.cancel(alarmIntent);
+            } else {
+                // 允许在低电耗模式下触发；非精确闹钟无需SCHEDULE_EXACT_ALARM权限
+                alarmManager.setAndAllowWhileIdle(AlarmManager.RTC_WAKEUP, next, alarmIntent);
+                Log.d(TAG, "Next callback alarm at " + next);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to refresh callbacks", e);
+        }
+    }
+    
+    /**
+     * 处理水位线之后、now及之前到期的回访
+     */
+    private void fireDue(long now) {
+        long firedUntil = PreferenceUtils.getLong(context, KEY_FIRED_UNTIL, -1);
+        if (firedUntil < 0) {
+            // 首次运行，不补发历史回访
+            PreferenceUtils.putLong(context, KEY_FIRED_UNTIL, now);
+            return;
+        }
+        
+        List<FollowUp> due = database.followUpDao().getDueCallbacks(firedUntil, now);
+        if (!due.isEmpty()) {
+            int[] ids = new int[due.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = due.get(i).getCustomerId();
+            }
+            Map<Integer, Customer> customers = new HashMap<>(ids.length * 2);
+            for (int from = 0; from < ids.length; from += QUERY_BATCH_SIZE) {
+                int[] batch = Arrays.copyOfRange(ids, from, Math.min(ids.length, from + QUERY_BATCH_SIZE));
+                for (Customer customer : database.customerDao().getCustomersByIds(batch)) {
+                    customers.put(customer.getId(), customer);
+                }
+            }
+            
+            List<Customer> missed = new ArrayList<>();
+            for (FollowUp followUp : due) {
+                Customer customer = customers.get(followUp.getCustomerId());
+                if (customer == null) {
+                    // 客户不在本地缓存中（已删除或未同步）
+                    continue;
+                }
+                if (!AutoDialerService.dispatchCallback(customer, followUp.getNextFollowTime())) {
+                    missed.add(customer);
+                }
+            }
+            Log.d(TAG, due.size() + " callbacks due, " + missed.size() + " need notification");
+            if (!missed.isEmpty()) {
+                notifyDue(missed);
+            }
+        }
+        PreferenceUtils.putLong(context, KEY_FIRED_UNTIL, now);
+    }
+    
+    private void notifyDue(List<Customer> customers) {
+        NotificationManager manager =
+                (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationChannel channel = new NotificationChannel(
+                    CHANNEL_ID,
+                    "回访提醒",
+                    NotificationManager.IMPORTANCE_HIGH
+            );
+            channel.setDescription("客户回访到期提醒");
+            manager.createNotificationChannel(channel);
+        }
+        
+        StringBuilder text = new StringBuilder();
+        int named = Math.min(customers.size(), NOTIFICATION_NAME_LIMIT);
+        for (int i = 0; i < named; i++) {
+            if (i > 0) {
+                text.append('、');
+            }
+            text.append(customers.get(i).getName());
+        }
+        if (customers.size() > named) {
+            text.append("等").append(customers.size()).append("位客户");
+        }
+        text.append("的回访已到期");
+        
+        Intent intent = new Intent(context, MainActivity.class);
+        PendingIntent contentIntent = PendingIntent.getActivity(
+                context, 0, intent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+        );
+        
+        manager.notify(NOTIFICATION_ID, new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setContentTitle("回访提醒")
+                .setContentText(text)
+                .setSmallIcon(R.drawable.ic_phone)
+                .setContentIntent(contentIntent)
+                .setAutoCancel(true)
+                .setPriority(NotificationCompat.PRIORITY_HIGH)
+                .build());
+    }
+    
+    private PendingIntent alarmIntent() {
+        Intent intent = new Intent(context, CallbackAlarmReceiver.class);
+        return PendingIntent.getBroadcast(context, ALARM_REQUEST_CODE, intent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE);
+    }
+}
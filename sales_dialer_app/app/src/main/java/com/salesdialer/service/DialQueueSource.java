@@ -0,0 +1,32 @@
+package com.salesdialer.service;
+
+import com.salesdialer.model.Customer;
+
+/**
+ * 拨号队列数据源
+ * AutoDialerService每次拨号时按需拉取下一个客户，数据源可以是内存列表、本地数据库或服务器分页
+ */
+public interface DialQueueSource {
+    
+    /**
+     * 取出下一个客户
+     *
+     * @return 下一个客户；数据仍在加载中时返回null，此时应稍后重试
+     */
+    Customer poll();
+    
+    /**
+     * 所有客户都已取出
+     */
+    boolean isExhausted();
+    
+    /**
+     * 队列总数，未知时返回-1
+     */
+    int size();
+    
+    /**
+     * 释放数据源持有的资源
+     */
+    void close();
+}
@@ -0,0 +1,290 @@
+package com.salesdialer.service;
+
+import com.salesdialer.model.Customer;
+import com.salesdialer.model.DialSessionChange;
+import com.salesdialer.service.strategy.DialStrategies;
+import com.salesdialer.service.strategy.DialStrategy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 拨号调度器
+ * 基于带索引的最小堆，客户等级、拨打记录变化或回访到期时只调整该客户的位置，无需整体重排
+ *
+ * <p>得分越小越先拨打：到期的回访排在最前（按到期时间先后）；
+ * 其余客户按DialStrategy计算的排序键排列，默认使用weighted策略。
+ * 回访未到期的客户不在堆中，到期时才加入，不会在回访时间之前被拨打。</p>
+ *
+ * <p>队列中客户的加入和移出记录为DialSessionChange，检查点只追加这些变化，不必每次重写全部id。</p>
+ */
+public class DialScheduler implements DialQueueSource, SessionCheckpointSource {
+    
+    // 到期回访的分值起点，保证低于所有普通客户（策略的排序键非负）
+    private static final long DUE_BASE = Long.MIN_VALUE / 2;
+    
+    private final IndexedCustomerHeap heap;
+    private final DialStrategy strategy;
+    
+    // 客户id -> 回访到期时间
+    private final Map<Integer, Long> callbacks = new HashMap<>();
+    // 尚未到期的回访，按到期时间排序；元素为 {到期时间, 客户id}
+    private final PriorityQueue<long[]> pendingCallbacks =
+            new PriorityQueue<>(16, (a, b) -> Long.compare(a[0], b[0]));
+    // 等待回访到期的客户，不在堆中，计入剩余队列
+    private final Map<Integer, Customer> waiting = new HashMap<>();
+    // 恢复会话时本地未缓存、正在从服务器读取的客户id，计入剩余队列
+    private final LinkedHashSet<Integer> unresolved = new LinkedHashSet<>();
+    // 上次drainChanges()以来的队列变化
+    private List<DialSessionChange> changes = new ArrayList<>();
+    
+    private boolean closed = false;
+    
+    public DialScheduler(List<Customer> customers) {
+        this(customers, DialStrategies.create(DialStrategies.WEIGHTED));
+    }
+    
+    public DialScheduler(List<Customer> customers, DialStrategy strategy) {
+        this.strategy = strategy;
+        this.heap = new IndexedCustomerHeap(customers.size());
+        
+        long now = System.currentTimeMillis();
+        strategy.prepare(customers, now);
+        for (Customer customer : customers) {
+            heap.offer(customer, score(customer, now));
+        }
+    }
+    
+    public DialStrategy getStrategy() {
+        return strategy;
+    }
+    
+    /**
+     * 加入或替换客户；客户正在等待回访时只替换客户信息
+     */
+    public void add(Customer customer) {
+        if (closed) {
+            return;
+        }
+        if (waiting.containsKey(customer.getId())) {
+            waiting.put(customer.getId(), customer);
+            return;
+        }
+        offer(customer, System.currentTimeMillis());
+    }
+    
+    /**
+     * 客户信息（等级、拨打记录）变化后重新计算位置
+     *
+     * @return 客户不在队列中时返回false
+     */
+    public boolean update(Customer customer) {
+        if (closed) {
+            return false;
+        }
+        if (waiting.containsKey(customer.getId())) {
+            waiting.put(customer.getId(), customer);
+            return true;
+        }
+        if (!heap.contains(customer.getId())) {
+            return false;
+        }
+        heap.offer(customer, score(customer, System.currentTimeMillis()));
+        return true;
+    }
+    
+    public Customer remove(int customerId) {
+        callbacks.remove(customerId);
+        Customer removed = heap.remove(customerId);
+        if (removed == null) {
+            removed = waiting.remove(customerId);
+        }
+        if (removed != null || unresolved.remove(customerId)) {
+            changes.add(new DialSessionChange(customerId, false));
+        }
+        return removed;
+    }
+    
+    /**
+     * 登记尚未读取到的客户，读取完成后调用resolve()
+     * 在此之前这些客户计入剩余队列和检查点，队列不会被视为已拨完
+     */
+    public void addUnresolved(int[] customerIds) {
+        if (closed) {
+            return;
+        }
+        for (int id : customerIds) {
+            if (!heap.contains(id) && !waiting.containsKey(id)) {
+                unresolved.add(id);
+            }
+        }
+    }
+    
+    /**
+     * 读取到的客户加入队列，未读取到的（已删除或读取失败）从队列中移除
+     */
+    public void resolve(int[] customerIds, List<Customer> customers) {
+        if (closed) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        for (Customer customer : customers) {
+            if (unresolved.contains(customer.getId())) {
+                offer(customer, now);
+            }
+        }
+        for (int id : customerIds) {
+            if (unresolved.remove(id)) {
+                changes.add(new DialSessionChange(id, false));
+            }
+        }
+    }
+    
+    /**
+     * 安排回访
+     * 到期后该客户立即排到队首；未到期前该客户移出堆等待，不会提前拨打；
+     * 客户已拨打出队的会被重新加入
+     */
+    public void scheduleCallback(Customer customer, long dueTime) {
+        if (closed) {
+            return;
+        }
+        int customerId = customer.getId();
+        callbacks.put(customerId, dueTime);
+        long now = System.currentTimeMillis();
+        if (dueTime <= now) {
+            waiting.remove(customerId);
+            offer(customer, now);
+            return;
+        }
+        
+        pendingCallbacks.add(new long[]{dueTime, customerId});
+        boolean queued = heap.remove(customerId) != null || waiting.containsKey(customerId)
+                || unresolved.remove(customerId);
+        if (!queued) {
+            changes.add(new DialSessionChange(customerId, true));
+        }
+        waiting.put(customerId, customer);
+    }
+    
+    @Override
+    public Customer poll() {
+        if (closed) {
+            return null;
+        }
+        promoteDueCallbacks(System.currentTimeMillis());
+        Customer customer = heap.poll();
+        if (customer != null) {
+            callbacks.remove(customer.getId());
+            changes.add(new DialSessionChange(customer.getId(), false));
+        }
+        return customer;
+    }
+    
+    @Override
+    public boolean isExhausted() {
+        // 等待中的回访不阻止会话结束，结束后由CallbackScheduler在到期时提醒
+        return closed || (heap.isEmpty() && unresolved.isEmpty());
+    }
+    
+    @Override
+    public int size() {
+        return heap.size() + waiting.size() + unresolved.size();
+    }
+    
+    /**
+     * 剩余客户id（堆内顺序，之后是等待回访和尚未读取到的客户），恢复时重新计算排序
+     */
+    @Override
+    public int[] getQueueIds() {
+        int[] queued = heap.ids();
+        if (waiting.isEmpty() && unresolved.isEmpty()) {
+            return queued;
+        }
+        int[] ids = Arrays.copyOf(queued, queued.length + waiting.size() + unresolved.size());
+        int i = queued.length;
+        for (int id : waiting.keySet()) {
+            ids[i++] = id;
+        }
+        for (int id : unresolved) {
+            ids[i++] = id;
+        }
+        return ids;
+    }
+    
+    @Override
+    public int getCursor() {
+        return 0;
+    }
+    
+    @Override
+    public boolean isOrderStable() {
+        return false;
+    }
+    
+    @Override
+    public List<DialSessionChange> drainChanges() {
+        List<DialSessionChange> drained = changes;
+        changes = new ArrayList<>();
+        return drained;
+    }
+    
+    @Override
+    public void close() {
+        closed = true;
+        heap.clear();
+        callbacks.clear();
+        pendingCallbacks.clear();
+        waiting.clear();
+        unresolved.clear();
+        changes.clear();
+    }
+    
+    /**
+     * 加入或替换客户，新加入的记录为队列变化
+     */
+    private void offer(Customer customer, long now) {
+        unresolved.remove(customer.getId());
+        if (!heap.contains(customer.getId())) {
+            changes.add(new DialSessionChange(customer.getId(), true));
+        }
+        heap.offer(customer, score(customer, now));
+    }
+    
+    /**
+     * 把已到期的回访提升到队首：等待中的客户加入堆，已在堆中的调整位置
+     */
+    private void promoteDueCallbacks(long now) {
+        while (!pendingCallbacks.isEmpty() && pendingCallbacks.peek()[0] <= now) {
+            long[] entry = pendingCallbacks.poll();
+            int customerId = (int) entry[1];
+            Long dueTime = callbacks.get(customerId);
+            // 回访已被改期或客户已出队时忽略
+            if (dueTime == null || dueTime != entry[0]) {
+                continue;
+            }
+            Customer customer = waiting.remove(customerId);
+            if (customer != null) {
+                heap.offer(customer, score(customer, now));
+                continue;
+            }
+            customer = heap.get(customerId);
+            if (customer != null) {
+                heap.updateKey(customerId, score(customer, now));
+            }
+        }
+    }
+    
+    private long score(Customer customer, long now) {
+        Long dueTime = callbacks.get(customer.getId());
+        if (dueTime != null && dueTime <= now) {
+            return DUE_BASE + dueTime;
+        }
+        return strategy.score(customer, now);
+    }
+}
@@ -0,0 +1,164 @@
+package com.salesdialer.service;
+
+import android.app.Notification;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.os.Build;
+import android.os.Handler;
+import android.os.SystemClock;
+
+import androidx.core.app.NotificationCompat;
+
+import com.salesdialer.R;
+import com.salesdialer.activity.AutoDialerActivity;
+
+/**
+ * 自动拨号前台通知
+ * 复用同一个Builder和PendingIntent；更新按最小间隔合并，间隔内的多次更新只发布最后一次；
+ * 内容与上次发布相同时不再调用NotificationManager
+ *
+ * <p>除createInitialNotification外只在拨号线程调用。</p>
+ */
+public class DialerNotifier {
+    
+    static final String CHANNEL_ID = "auto_dialer_channel";
+    static final int NOTIFICATION_ID = 1001;
+    
+    // 最多每秒2次
+    private static final long MIN_UPDATE_INTERVAL_MS = 500;
+    
+    private final Context context;
+    private final Handler handler;
+    private final NotificationManager manager;
+    private final PendingIntent contentIntent;
+    private final NotificationCompat.Builder builder;
+    private final StringBuilder textBuffer = new StringBuilder(64);
+    
+    // 待发布的内容
+    private String pendingTitle;
+    private String pendingText;
+    private boolean pendingOngoing;
+    private boolean scheduled = false;
+    
+    // 上次发布的内容
+    private String postedTitle;
+    private String postedText;
+    private boolean postedOngoing;
+    private long lastPostTime = 0;
+    
+    private final Runnable flushRunnable = this::flush;
+    
+    public DialerNotifier(Context context, Handler handler) {
+        this.context = context.getApplicationContext();
+        this.handler = handler;
+        this.manager = (NotificationManager) this.context.getSystemService(Context.NOTIFICATION_SERVICE);
+        createNotificationChannel();
+        
+        Intent intent = new Intent(this.context, AutoDialerActivity.class);
+        contentIntent = PendingIntent.getActivity(
+                this.context, 0, intent,
+                PendingIntent.FLAG_UPDATE_CURRENT | PendingIntent.FLAG_IMMUTABLE
+        );
+        
+        builder = new NotificationCompat.Builder(this.context, CHANNEL_ID)
+                .setSmallIcon(R.drawable.ic_phone)
+                .setContentIntent(contentIntent)
+                .setOnlyAlertOnce(true);
+    }
+    
+    /**
+     * 前台服务启动时的初始通知
+     * 在主线程调用，使用独立的Builder，不影响拨号线程复用的Builder
+     */
+    public Notification createInitialNotification() {
+        return new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setContentTitle("智能电销王")
+                .setContentText("自动拨号服务运行中...")
+                .setSmallIcon(R.drawable.ic_phone)
+                .setContentIntent(contentIntent)
+                .setOngoing(true)
+                .build();
+    }
+    
+    /**
+     * 更新通知，按最小间隔合并
+     *
+     * @param total 队列总数，未知时为-1
+     */
+    public void update(String status, int current, int total, int success, int failed, boolean ongoing) {
+        pendingTitle = "智能电销王 - " + status;
+        pendingText = renderProgress(current, total, success, failed);
+        pendingOngoing = ongoing;
+        
+        if (scheduled) {
+            return;
+        }
+        long wait = lastPostTime + MIN_UPDATE_INTERVAL_MS - SystemClock.elapsedRealtime();
+        if (wait <= 0) {
+            flush();
+        } else {
+            scheduled = true;
+            handler.postDelayed(flushRunnable, wait);
+        }
+    }
+    
+    /**
+     * 丢弃尚未发布的更新
+     */
+    public void cancelPending() {
+        handler.removeCallbacks(flushRunnable);
+        scheduled = false;
+    }
+    
+    private void flush() {
+        scheduled = false;
+        if (pendingTitle == null) {
+            return;
+        }
+        if (pendingOngoing == postedOngoing && pendingTitle.equals(postedTitle)
+                && pendingText.equals(postedText)) {
+            return;
+        }
+        
+        postedTitle = pendingTitle;
+        postedText = pendingText;
+        postedOngoing = pendingOngoing;
+        lastPostTime = SystemClock.elapsedRealtime();
+        
+        Notification notification = builder.setContentTitle(postedTitle)
+                .setContentText(postedText)
+                .setOngoing(postedOngoing)
+                .build();
+        if (manager != null) {
+            manager.notify(NOTIFICATION_ID, notification);
+        }
+    }
+    
+    private String renderProgress(int current, int total, int success, int failed) {
+        textBuffer.setLength(0);
+        textBuffer.append("进度: ").append(current).append('/');
+        if (total >= 0) {
+            textBuffer.append(total);
+        } else {
+            textBuffer.append('?');
+        }
+        textBuffer.append(" | 成功: ").append(success)
+                .append(" | 失败: ").append(failed);
+        return textBuffer.toString();
+    }
+    
+    private void createNotificationChannel() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && manager != null) {
+            NotificationChannel channel = new NotificationChannel(
+                    CHANNEL_ID,
+                    "自动拨号服务",
+                    NotificationManager.IMPORTANCE_LOW
+            );
+            channel.setDescription("用于显示自动拨号状态");
+            manager.createNotificationChannel(channel);
+        }
+    }
+}
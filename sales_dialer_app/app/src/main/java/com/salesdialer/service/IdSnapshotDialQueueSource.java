@@ -0,0 +1,110 @@
+package com.salesdialer.service;
+
+import com.salesdialer.model.Customer;
+import com.salesdialer.model.DialSessionChange;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按客户id快照分页的数据源基类
+ * 第一页加载时取出排好序的客户id快照，之后按快照顺序分页读取客户；
+ * 拨号过程中last_call_time、状态会变化，按快照分页可避免offset分页的跳过和重复
+ *
+ * <p>id快照即检查点中的队列，游标为最后取出的客户在快照中的下一个位置。</p>
+ */
+public abstract class IdSnapshotDialQueueSource extends PagedDialQueueSource implements SessionCheckpointSource {
+    
+    private volatile int[] ids;
+    private int position = 0;  // 只在加载线程访问
+    private int cursor = 0;    // 只在拨号线程访问
+    
+    protected IdSnapshotDialQueueSource(int pageSize, int prefetchThreshold) {
+        super(pageSize, prefetchThreshold);
+    }
+    
+    /**
+     * 取出排好序的客户id快照，在加载线程调用一次
+     */
+    protected abstract int[] loadIds() throws Exception;
+    
+    /**
+     * 按id读取客户放入out，不存在的客户不放入；在加载线程调用
+     */
+    protected abstract void loadCustomers(int[] ids, Map<Integer, Customer> out) throws Exception;
+    
+    @Override
+    protected final List<Customer> loadPage(int offset, int limit) throws Exception {
+        if (ids == null) {
+            ids = loadIds();
+        }
+        int[] snapshot = ids;
+        
+        // 快照之后被删除的客户会被跳过，因此用自己的位置而不是offset推进，
+        // 并持续读取直到凑满一页，只有到达末尾时才返回不足一页
+        List<Customer> page = new ArrayList<>(limit);
+        while (page.size() < limit && position < snapshot.length) {
+            int end = Math.min(position + limit - page.size(), snapshot.length);
+            int[] pageIds = new int[end - position];
+            System.arraycopy(snapshot, position, pageIds, 0, pageIds.length);
+            
+            // 按id读取不保证顺序，按快照顺序重排
+            Map<Integer, Customer> byId = new HashMap<>(pageIds.length * 2);
+            loadCustomers(pageIds, byId);
+            position = end;
+            for (int id : pageIds) {
+                Customer customer = byId.get(id);
+                if (customer != null) {
+                    page.add(customer);
+                }
+            }
+        }
+        return page;
+    }
+    
+    @Override
+    public Customer poll() {
+        Customer customer = super.poll();
+        if (customer != null) {
+            // 取出顺序与快照一致，向后找到该客户即可，总计O(n)
+            int[] snapshot = ids;
+            while (cursor < snapshot.length && snapshot[cursor] != customer.getId()) {
+                cursor++;
+            }
+            cursor = Math.min(cursor + 1, snapshot.length);
+        }
+        return customer;
+    }
+    
+    @Override
+    public int size() {
+        int[] snapshot = ids;
+        return snapshot != null ? snapshot.length : -1;
+    }
+    
+    /**
+     * id快照尚未取得时返回null
+     */
+    @Override
+    public int[] getQueueIds() {
+        return ids;
+    }
+    
+    @Override
+    public int getCursor() {
+        return cursor;
+    }
+    
+    @Override
+    public boolean isOrderStable() {
+        return true;
+    }
+    
+    @Override
+    public List<DialSessionChange> drainChanges() {
+        return Collections.emptyList();
+    }
+}
@@ -0,0 +1,197 @@
+package com.salesdialer.service;
+
+import com.salesdialer.model.Customer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 带索引的客户最小堆
+ * 以客户id为索引，支持O(log n)的插入、改键、删除和取堆顶，键越小越先出队
+ */
+public class IndexedCustomerHeap {
+    
+    private Customer[] customers;
+    private long[] keys;
+    private int size = 0;
+    
+    // 客户id -> 在堆数组中的位置
+    private final Map<Integer, Integer> positions = new HashMap<>();
+    
+    public IndexedCustomerHeap(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 8);
+        customers = new Customer[capacity];
+        keys = new long[capacity];
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    public boolean contains(int customerId) {
+        return positions.containsKey(customerId);
+    }
+    
+    /**
+     * 插入客户；已存在时替换客户对象并更新键
+     */
+    public void offer(Customer customer, long key) {
+        Integer position = positions.get(customer.getId());
+        if (position != null) {
+            customers[position] = customer;
+            changeKey(position, key);
+            return;
+        }
+        
+        if (size == customers.length) {
+            int capacity = size * 2;
+            customers = Arrays.copyOf(customers, capacity);
+            keys = Arrays.copyOf(keys, capacity);
+        }
+        
+        customers[size] = customer;
+        keys[size] = key;
+        positions.put(customer.getId(), size);
+        siftUp(size++);
+    }
+    
+    /**
+     * 更新已有客户的键
+     *
+     * @return 客户不在堆中时返回false
+     */
+    public boolean updateKey(int customerId, long key) {
+        Integer position = positions.get(customerId);
+        if (position == null) {
+            return false;
+        }
+        changeKey(position, key);
+        return true;
+    }
+    
+    /**
+     * 删除客户
+     *
+     * @return 被删除的客户，不在堆中时返回null
+     */
+    public Customer remove(int customerId) {
+        Integer position = positions.get(customerId);
+        if (position == null) {
+            return null;
+        }
+        return removeAt(position);
+    }
+    
+    public Customer peek() {
+        return size > 0 ? customers[0] : null;
+    }
+    
+    public long peekKey() {
+        return keys[0];
+    }
+    
+    public Customer get(int customerId) {
+        Integer position = positions.get(customerId);
+        return position != null ? customers[position] : null;
+    }
+    
+    /**
+     * 取出键最小的客户
+     */
+    public Customer poll() {
+        return size > 0 ? removeAt(0) : null;
+    }
+    
+    /**
+     * 堆中所有客户id（堆数组顺序）
+     */
+    public int[] ids() {
+        int[] ids = new int[size];
+        for (int i = 0; i < size; i++) {
+            ids[i] = customers[i].getId();
+        }
+        return ids;
+    }
+    
+    public void clear() {
+        Arrays.fill(customers, 0, size, null);
+        positions.clear();
+        size = 0;
+    }
+    
+    private void changeKey(int position, long key) {
+        long old = keys[position];
+        keys[position] = key;
+        if (key < old) {
+            siftUp(position);
+        } else if (key > old) {
+            siftDown(position);
+        }
+    }
+    
+    private Customer removeAt(int position) {
+        Customer removed = customers[position];
+        positions.remove(removed.getId());
+        
+        int last = --size;
+        if (position != last) {
+            move(last, position);
+            customers[last] = null;
+            siftDown(position);
+            siftUp(position);
+        } else {
+            customers[last] = null;
+        }
+        return removed;
+    }
+    
+    private void siftUp(int position) {
+        Customer customer = customers[position];
+        long key = keys[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            move(parent, position);
+            position = parent;
+        }
+        place(customer, key, position);
+    }
+    
+    private void siftDown(int position) {
+        Customer customer = customers[position];
+        long key = keys[position];
+        int half = size >>> 1;
+        while (position < half) {
+            int child = 2 * position + 1;
+            int right = child + 1;
+            if (right < size && keys[right] < keys[child]) {
+                child = right;
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            move(child, position);
+            position = child;
+        }
+        place(customer, key, position);
+    }
+    
+    private void move(int from, int to) {
+        customers[to] = customers[from];
+        keys[to] = keys[from];
+        positions.put(customers[to].getId(), to);
+    }
+    
+    private void place(Customer customer, long key, int position) {
+        customers[position] = customer;
+        keys[position] = key;
+        positions.put(customer.getId(), position);
+    }
+}
@@ -0,0 +1,74 @@
+package com.salesdialer.service;
+
+import com.salesdialer.model.Customer;
+import com.salesdialer.model.DialSessionChange;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 内存列表数据源
+ * 取出后即释放对该客户的引用，已拨打的客户可以被回收
+ */
+public class ListDialQueueSource implements DialQueueSource, SessionCheckpointSource {
+    
+    private final Customer[] customers;
+    private final int[] ids;
+    private int position = 0;
+    
+    public ListDialQueueSource(List<Customer> customers) {
+        this.customers = customers.toArray(new Customer[0]);
+        this.ids = new int[this.customers.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = this.customers[i].getId();
+        }
+    }
+    
+    @Override
+    public Customer poll() {
+        if (position >= customers.length) {
+            return null;
+        }
+        Customer customer = customers[position];
+        customers[position++] = null;
+        return customer;
+    }
+    
+    @Override
+    public boolean isExhausted() {
+        return position >= customers.length;
+    }
+    
+    @Override
+    public int size() {
+        return customers.length;
+    }
+    
+    @Override
+    public int[] getQueueIds() {
+        return ids;
+    }
+    
+    @Override
+    public int getCursor() {
+        return position;
+    }
+    
+    @Override
+    public boolean isOrderStable() {
+        return true;
+    }
+    
+    @Override
+    public List<DialSessionChange> drainChanges() {
+        return Collections.emptyList();
+    }
+    
+    @Override
+    public void close() {
+        for (int i = position; i < customers.length; i++) {
+            customers[i] = null;
+        }
+        position = customers.length;
+    }
+}
@@ -0,0 +1,174 @@
+package com.salesdialer.service;
+
+/**
+ * 自适应拨号节奏
+ * 保留最近若干通电话的振铃时长、是否接通和通话时长，据此调整挂断后到下一通之间的间隔，
+ * 使销售的空闲时间占比接近目标值
+ *
+ * <p>每通电话的期望周期 = 振铃 + 接通率 × 通话时长 + 间隔，其中通话之外的时间都算空闲。
+ * 要让 空闲 / 周期 = 目标占比 r，间隔 G = 接通率 × 通话时长 × r / (1 - r) - 振铃。
+ * 接通率低时振铃已经占掉空闲时间，间隔收缩到下限；通话多且长时间隔变大，留出整理时间。
+ * 计算结果经过平滑并限制在[minGap, maxGap]之间。</p>
+ *
+ * <p>样本不足MIN_SAMPLES通时，有历史先验（seed）则以先验补足样本数，随本次样本增加逐渐退出；
+ * 没有先验时使用基础间隔。非线程安全，只在拨号线程调用。</p>
+ */
+public class PacingController {
+    
+    private static final int DEFAULT_WINDOW = 30;
+    private static final int MIN_SAMPLES = 5;
+    // 新计算的间隔与上一次间隔的平滑系数
+    private static final double SMOOTHING = 0.3;
+    
+    private final long[] ringMs;
+    private final long[] talkMs;
+    private final boolean[] answered;
+    private int count = 0;
+    private int next = 0;
+    
+    // 历史通话的接通率和平均通话时长，-1表示没有先验
+    private double priorAnswerRate = -1;
+    private long priorTalkMs = 0;
+    
+    private long baseGapMs;
+    private long minGapMs = 2000;
+    private long maxGapMs = 30000;
+    private double targetIdleRatio = 0.3;
+    private long currentGapMs;
+    
+    public PacingController(long baseGapMs) {
+        this(baseGapMs, DEFAULT_WINDOW);
+    }
+    
+    public PacingController(long baseGapMs, int window) {
+        int size = Math.max(MIN_SAMPLES, window);
+        this.ringMs = new long[size];
+        this.talkMs = new long[size];
+        this.answered = new boolean[size];
+        this.baseGapMs = baseGapMs;
+        this.currentGapMs = baseGapMs;
+    }
+    
+    /**
+     * 记录一通电话
+     *
+     * @param ringMs 从摘机到接通（未接通时到挂断）的时长
+     * @param talkMs 通话时长，未接通为0
+     */
+    public void record(long ringMs, boolean answered, long talkMs) {
+        this.ringMs[next] = Math.max(0, ringMs);
+        this.talkMs[next] = answered ? Math.max(0, talkMs) : 0;
+        this.answered[next] = answered;
+        next = (next + 1) % this.ringMs.length;
+        if (count < this.ringMs.length) {
+            count++;
+        }
+        currentGapMs = smooth(currentGapMs, computeGap());
+    }
+    
+    /**
+     * 用历史通话设置先验，本次样本不足MIN_SAMPLES通时参与计算
+     *
+     * @param answerRate 历史接通率
+     * @param avgTalkMs  历史接通电话的平均通话时长
+     */
+    public void seed(double answerRate, long avgTalkMs) {
+        priorAnswerRate = Math.max(0, Math.min(1, answerRate));
+        priorTalkMs = Math.max(0, avgTalkMs);
+        if (count < MIN_SAMPLES) {
+            currentGapMs = computeGap();
+        }
+    }
+    
+    /**
+     * 下一通之前应等待的间隔
+     */
+    public long getGapMs() {
+        return currentGapMs;
+    }
+    
+    public void reset() {
+        count = 0;
+        next = 0;
+        priorAnswerRate = -1;
+        priorTalkMs = 0;
+        currentGapMs = baseGapMs;
+    }
+    
+    /**
+     * 最近窗口内的接通率，无样本时返回-1
+     */
+    public double getAnswerRate() {
+        if (count == 0) {
+            return -1;
+        }
+        int connected = 0;
+        for (int i = 0; i < count; i++) {
+            if (answered[i]) {
+                connected++;
+            }
+        }
+        return connected / (double) count;
+    }
+    
+    long computeGap() {
+        // 先验按MIN_SAMPLES - count通虚拟样本计入，样本足够后不再参与
+        int priorWeight = priorAnswerRate >= 0 ? Math.max(0, MIN_SAMPLES - count) : 0;
+        if (count + priorWeight < MIN_SAMPLES) {
+            return baseGapMs;
+        }
+        
+        long ringTotal = 0;
+        long talkTotal = 0;
+        int connected = 0;
+        for (int i = 0; i < count; i++) {
+            ringTotal += ringMs[i];
+            if (answered[i]) {
+                talkTotal += talkMs[i];
+                connected++;
+            }
+        }
+        
+        double priorAnswers = priorWeight * Math.max(0, priorAnswerRate);
+        double answers = connected + priorAnswers;
+        double answerRate = answers / (count + priorWeight);
+        double avgTalk = answers > 0 ? (talkTotal + priorAnswers * priorTalkMs) / answers : 0;
+        // 历史通话没有振铃时长，只用本次样本
+        double avgRing = count > 0 ? ringTotal / (double) count : 0;
+        
+        double gap = answerRate * avgTalk * targetIdleRatio / (1 - targetIdleRatio) - avgRing;
+        return clamp((long) gap);
+    }
+    
+    private long smooth(long previous, long target) {
+        return clamp(Math.round(previous + SMOOTHING * (target - previous)));
+    }
+    
+    private long clamp(long gap) {
+        return Math.max(minGapMs, Math.min(maxGapMs, gap));
+    }
+    
+    // Setters
+    public PacingController setBaseGap(long baseGapMs) {
+        this.baseGapMs = baseGapMs;
+        if (count < MIN_SAMPLES && priorAnswerRate < 0) {
+            currentGapMs = clamp(baseGapMs);
+        }
+        return this;
+    }
+    
+    public PacingController setBounds(long minGapMs, long maxGapMs) {
+        this.minGapMs = minGapMs;
+        this.maxGapMs = Math.max(minGapMs, maxGapMs);
+        currentGapMs = clamp(currentGapMs);
+        return this;
+    }
+    
+    /**
+     * 目标空闲占比，限制在0.05~0.9
+     */
+    public PacingController setTargetIdleRatio(double ratio) {
+        this.targetIdleRatio = Math.max(0.05, Math.min(0.9, ratio));
+        return this;
+    }
+}
@@ -0,0 +1,109 @@
+package com.salesdialer.service;
+
+import android.util.Log;
+
+import com.salesdialer.model.Customer;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 分页数据源基类
+ * 只在内存中保留当前位置之后的一小段窗口，剩余不足prefetchThreshold时在后台预取下一页
+ */
+public abstract class PagedDialQueueSource implements DialQueueSource {
+    
+    private static final String TAG = "PagedDialQueueSource";
+    private static final long RETRY_DELAY_MS = 3000;
+    
+    private final int pageSize;
+    private final int prefetchThreshold;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    
+    private final ArrayDeque<Customer> window = new ArrayDeque<>();
+    private int loadedCount = 0;
+    private boolean loading = false;
+    private boolean endReached = false;
+    private boolean closed = false;
+    private long lastFailureTime = 0;
+    
+    protected PagedDialQueueSource(int pageSize, int prefetchThreshold) {
+        this.pageSize = pageSize;
+        this.prefetchThreshold = prefetchThreshold;
+    }
+    
+    /**
+     * 加载一页客户，在后台线程调用
+     *
+     * @return 本页客户，少于limit条表示已到末尾
+     */
+    protected abstract List<Customer> loadPage(int offset, int limit) throws Exception;
+    
+    /**
+     * 立即开始加载第一页，拨号可以在全部数据到达前开始
+     */
+    public void prefetch() {
+        synchronized (this) {
+            maybeLoadNextPage();
+        }
+    }
+    
+    @Override
+    public synchronized Customer poll() {
+        Customer customer = window.poll();
+        maybeLoadNextPage();
+        return customer;
+    }
+    
+    @Override
+    public synchronized boolean isExhausted() {
+        return endReached && window.isEmpty();
+    }
+    
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            window.clear();
+        }
+        executor.shutdownNow();
+    }
+    
+    private void maybeLoadNextPage() {
+        if (closed || loading || endReached || window.size() > prefetchThreshold) {
+            return;
+        }
+        if (System.currentTimeMillis() - lastFailureTime < RETRY_DELAY_MS) {
+            return;
+        }
+        
+        loading = true;
+        final int offset = loadedCount;
+        executor.execute(() -> {
+            List<Customer> page = null;
+            try {
+                page = loadPage(offset, pageSize);
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to load dial queue page at " + offset + ": " + e.getMessage());
+            }
+            
+            synchronized (PagedDialQueueSource.this) {
+                loading = false;
+                if (closed) {
+                    return;
+                }
+                if (page == null) {
+                    lastFailureTime = System.currentTimeMillis();
+                    return;
+                }
+                window.addAll(page);
+                loadedCount += page.size();
+                if (page.size() < pageSize) {
+                    endReached = true;
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,70 @@
+package com.salesdialer.service;
+
+import com.salesdialer.api.OdooApiClient;
+import com.salesdialer.database.CallHistoryStore;
+import com.salesdialer.database.CustomerDao;
+import com.salesdialer.model.Customer;
+import com.salesdialer.model.CustomerFieldSet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 从会话检查点恢复的数据源
+ * 保留检查点中剩余的客户id，边拨号边按页读取：先查本地数据库，
+ * 本地未缓存的客户（如从服务器拉取的列表）再从服务器读取，不会因未缓存而丢失
+ */
+public class RestoredDialQueueSource extends IdSnapshotDialQueueSource {
+    
+    private static final int PAGE_SIZE = 50;
+    private static final int PREFETCH_THRESHOLD = 10;
+    
+    private final int[] remainingIds;
+    private final CustomerDao customerDao;
+    private final OdooApiClient apiClient;
+    private final CallHistoryStore callHistory;
+    
+    public RestoredDialQueueSource(int[] remainingIds, CustomerDao customerDao,
+                                   OdooApiClient apiClient, CallHistoryStore callHistory) {
+        super(PAGE_SIZE, PREFETCH_THRESHOLD);
+        this.remainingIds = remainingIds;
+        this.customerDao = customerDao;
+        this.apiClient = apiClient;
+        this.callHistory = callHistory;
+    }
+    
+    @Override
+    protected int[] loadIds() {
+        return remainingIds;
+    }
+    
+    @Override
+    protected void loadCustomers(int[] ids, Map<Integer, Customer> out) throws Exception {
+        for (Customer customer : customerDao.getCustomersByIds(ids)) {
+            out.put(customer.getId(), customer);
+        }
+        if (out.size() == ids.length) {
+            return;
+        }
+        
+        int[] missing = new int[ids.length];
+        int count = 0;
+        for (int id : ids) {
+            if (!out.containsKey(id)) {
+                missing[count++] = id;
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+        List<Customer> fetched = new ArrayList<>(count);
+        apiClient.readCustomers(Arrays.copyOf(missing, count), CustomerFieldSet.DIAL_QUEUE, fetched::add);
+        // 服务器记录没有本地的拨打记录字段
+        callHistory.applyTo(fetched);
+        for (Customer customer : fetched) {
+            out.put(customer.getId(), customer);
+        }
+    }
+}
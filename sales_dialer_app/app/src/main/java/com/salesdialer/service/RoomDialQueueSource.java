@@ -0,0 +1,48 @@
+package com.salesdialer.service;
+
+import com.salesdialer.database.CustomerDao;
+import com.salesdialer.model.Customer;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 本地数据库数据源
+ * 开始时只取出排好序的客户id快照，再按页读取完整客户（见IdSnapshotDialQueueSource）
+ */
+public class RoomDialQueueSource extends IdSnapshotDialQueueSource {
+    
+    private static final int PAGE_SIZE = 50;
+    private static final int PREFETCH_THRESHOLD = 10;
+    
+    private final CustomerDao customerDao;
+    private final int ownerId;
+    
+    /**
+     * @param ownerId 只拨打该归属人的客户，0表示全部
+     */
+    public RoomDialQueueSource(CustomerDao customerDao, int ownerId) {
+        super(PAGE_SIZE, PREFETCH_THRESHOLD);
+        this.customerDao = customerDao;
+        this.ownerId = ownerId;
+    }
+    
+    @Override
+    protected int[] loadIds() {
+        List<Integer> snapshot = ownerId > 0
+                ? customerDao.getDialQueueIdsByOwner(ownerId)
+                : customerDao.getDialQueueIds();
+        int[] ids = new int[snapshot.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = snapshot.get(i);
+        }
+        return ids;
+    }
+    
+    @Override
+    protected void loadCustomers(int[] ids, Map<Integer, Customer> out) {
+        for (Customer customer : customerDao.getCustomersByIds(ids)) {
+            out.put(customer.getId(), customer);
+        }
+    }
+}
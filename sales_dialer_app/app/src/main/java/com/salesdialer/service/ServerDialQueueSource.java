@@ -0,0 +1,38 @@
+package com.salesdialer.service;
+
+import com.salesdialer.api.DialQueueQuery;
+import com.salesdialer.api.OdooApiClient;
+import com.salesdialer.model.Customer;
+import com.salesdialer.model.CustomerFieldSet;
+
+import java.util.Map;
+
+/**
+ * 服务器数据源
+ * 按DialQueueQuery在服务器端筛选排序，开始时只取出客户id快照，再边拨号边按页读取精简客户
+ * （见IdSnapshotDialQueueSource）
+ */
+public class ServerDialQueueSource extends IdSnapshotDialQueueSource {
+    
+    private static final int PAGE_SIZE = 100;
+    private static final int PREFETCH_THRESHOLD = 20;
+    
+    private final OdooApiClient apiClient;
+    private final DialQueueQuery query;
+    
+    public ServerDialQueueSource(OdooApiClient apiClient, DialQueueQuery query) {
+        super(PAGE_SIZE, PREFETCH_THRESHOLD);
+        this.apiClient = apiClient;
+        this.query = query;
+    }
+    
+    @Override
+    protected int[] loadIds() throws Exception {
+        return apiClient.searchDialQueueIds(query);
+    }
+    
+    @Override
+    protected void loadCustomers(int[] ids, Map<Integer, Customer> out) throws Exception {
+        apiClient.readCustomers(ids, CustomerFieldSet.DIAL_QUEUE, customer -> out.put(customer.getId(), customer));
+    }
+}
@@ -0,0 +1,33 @@
+package com.salesdialer.service;
+
+import com.salesdialer.model.DialSessionChange;
+
+import java.util.List;
+
+/**
+ * 支持会话检查点的拨号数据源
+ * 能给出队列中的客户id，进程重启后可以按id重建队列
+ */
+public interface SessionCheckpointSource {
+    
+    /**
+     * 队列客户id，按拨打顺序；id尚未取得（分页数据源加载第一页前）时返回null
+     */
+    int[] getQueueIds();
+    
+    /**
+     * getQueueIds()中已取出的数量
+     */
+    int getCursor();
+    
+    /**
+     * 顺序是否固定；不固定（如DialScheduler）时getQueueIds()是剩余客户，增减通过drainChanges()记录
+     */
+    boolean isOrderStable();
+    
+    /**
+     * 取出上次调用以来队列中加入、移出的客户，并清空记录
+     * 顺序固定的数据源返回空列表
+     */
+    List<DialSessionChange> drainChanges();
+}
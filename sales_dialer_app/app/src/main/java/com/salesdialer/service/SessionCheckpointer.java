@@ -0,0 +1,83 @@
+package com.salesdialer.service;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.salesdialer.database.AppDatabase;
+import com.salesdialer.database.DialSessionDao;
+import com.salesdialer.model.DialSession;
+import com.salesdialer.model.DialSessionChange;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+/**
+ * 拨号会话检查点写入
+ * 写入在串行的后台执行器上按提交顺序执行，不阻塞拨号线程
+ */
+class SessionCheckpointer {
+    
+    private static final String TAG = "SessionCheckpointer";
+    
+    private final DialSessionDao dao;
+    private final Executor executor;
+    
+    SessionCheckpointer(Context context, Executor executor) {
+        this.dao = AppDatabase.getInstance(context).dialSessionDao();
+        this.executor = executor;
+    }
+    
+    /**
+     * 写入完整检查点（含队列id），之前追加的队列变化一并清空
+     */
+    void save(DialSession session) {
+        executor.execute(() -> {
+            try {
+                dao.replaceSession(session);
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to save session: " + e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * 追加队列变化，更新游标和统计
+     */
+    void progress(List<DialSessionChange> changes, int cursor, int currentIndex, int totalDialed,
+                  int successCount, int failedCount) {
+        long now = System.currentTimeMillis();
+        executor.execute(() -> {
+            try {
+                dao.appendProgress(changes, cursor, currentIndex, totalDialed, successCount, failedCount, now);
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to update session: " + e.getMessage());
+            }
+        });
+    }
+    
+    void clear() {
+        executor.execute(() -> {
+            try {
+                dao.clearSession();
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to clear session: " + e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * 读取检查点，在调用线程同步执行
+     *
+     * @return 没有未完成的会话时返回null
+     */
+    DialSession load() {
+        return dao.getSession();
+    }
+    
+    /**
+     * 读取完整检查点之后追加的队列变化，按写入顺序，在调用线程同步执行
+     */
+    List<DialSessionChange> loadChanges() {
+        return dao.getChanges();
+    }
+}
@@ -0,0 +1,37 @@
+package com.salesdialer.service.strategy;
+
+import com.salesdialer.model.Customer;
+
+import java.util.List;
+
+/**
+ * 按当前时段接通率排序
+ * 当前小时内历史接通率高的客户等级优先，接通率相同（如没有数据）时按等级排序
+ */
+public class AnswerRateByHourStrategy implements DialStrategy {
+    
+    // 等级占用键的低3位
+    private static final int LEVEL_BITS = 3;
+    
+    private final AnswerRateStats stats;
+    
+    public AnswerRateByHourStrategy(AnswerRateStats stats) {
+        this.stats = stats;
+    }
+    
+    @Override
+    public String getName() {
+        return DialStrategies.ANSWER_RATE;
+    }
+    
+    @Override
+    public void prepare(List<Customer> customers, long now) {
+    }
+    
+    @Override
+    public long score(Customer customer, long now) {
+        int rank = Scores.levelRank(customer);
+        double rate = stats.answerRate(rank, AnswerRateStats.localHour(now));
+        return (Scores.toKey(1 - rate) << LEVEL_BITS) | rank;
+    }
+}
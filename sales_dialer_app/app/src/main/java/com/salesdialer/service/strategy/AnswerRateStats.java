@@ -0,0 +1,79 @@
+package com.salesdialer.service.strategy;
+
+import com.salesdialer.model.Customer;
+import com.salesdialer.model.CustomerLevel;
+
+import java.util.TimeZone;
+
+/**
+ * 分等级、分时段的接通率统计
+ * 按客户等级和拨打时的本地小时累计拨打数和接通数，供AnswerRateByHourStrategy使用；
+ * 历史数据由CallHistoryStore首次加载时从call_logs汇总写入，之后每通电话调用record()
+ */
+public class AnswerRateStats {
+    
+    private static final int LEVELS = Scores.UNKNOWN_LEVEL_RANK + 1;
+    private static final int HOURS = 24;
+    
+    private static AnswerRateStats instance;
+    
+    private final int[] attempts = new int[LEVELS * HOURS];
+    private final int[] answers = new int[LEVELS * HOURS];
+    
+    public static synchronized AnswerRateStats getInstance() {
+        if (instance == null) {
+            instance = new AnswerRateStats();
+        }
+        return instance;
+    }
+    
+    /**
+     * 记录一次拨打结果
+     */
+    public synchronized void record(Customer customer, long callTime, boolean answered) {
+        int slot = slot(Scores.levelRank(customer), localHour(callTime));
+        attempts[slot]++;
+        if (answered) {
+            answers[slot]++;
+        }
+    }
+    
+    /**
+     * 累加历史汇总
+     */
+    public synchronized void add(CustomerLevel level, int hour, int attemptCount, int answerCount) {
+        if (hour < 0 || hour >= HOURS) {
+            return;
+        }
+        int slot = slot(Math.min(level.getPriority(), Scores.UNKNOWN_LEVEL_RANK), hour);
+        attempts[slot] += attemptCount;
+        answers[slot] += answerCount;
+    }
+    
+    /**
+     * 接通率估计，拉普拉斯平滑，没有数据时为0.5
+     */
+    public synchronized double answerRate(int levelRank, int hour) {
+        int slot = slot(levelRank, hour);
+        return (answers[slot] + 1d) / (attempts[slot] + 2d);
+    }
+    
+    public synchronized void clear() {
+        for (int i = 0; i < attempts.length; i++) {
+            attempts[i] = 0;
+            answers[i] = 0;
+        }
+    }
+    
+    /**
+     * 本地时间的小时（0~23）
+     */
+    public static int localHour(long time) {
+        long local = time + TimeZone.getDefault().getOffset(time);
+        return (int) ((local / Scores.HOUR_MS) % HOURS + HOURS) % HOURS;
+    }
+    
+    private static int slot(int levelRank, int hour) {
+        return levelRank * HOURS + hour;
+    }
+}
@@ -0,0 +1,67 @@
+package com.salesdialer.service.strategy;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 拨号策略注册表
+ * 按名称创建策略实例，新增排序方式只需注册，不需要修改拨号服务；
+ * A/B测试时把不同用户分配到不同的策略名即可
+ */
+public class DialStrategies {
+    
+    public static final String PRIORITY = "priority";
+    public static final String TIME = "time";
+    public static final String RANDOM = "random";
+    public static final String SERVER = "server";
+    public static final String WEIGHTED = "weighted";
+    public static final String RECENCY = "recency";
+    public static final String ANSWER_RATE = "answer_rate";
+    public static final String ROUND_ROBIN = "round_robin";
+    
+    /**
+     * 策略工厂，部分策略带有prepare阶段的状态，每次拨号需要新实例
+     */
+    public interface Factory {
+        DialStrategy create();
+    }
+    
+    private static final Map<String, Factory> factories = new LinkedHashMap<>();
+    
+    static {
+        register(PRIORITY, PriorityStrategy::new);
+        register(TIME, LastCallTimeStrategy::new);
+        register(RANDOM, RandomStrategy::new);
+        register(SERVER, ServerOrderStrategy::new);
+        register(WEIGHTED, WeightedScoreStrategy::new);
+        register(RECENCY, RecencyDecayStrategy::new);
+        register(ANSWER_RATE, () -> new AnswerRateByHourStrategy(AnswerRateStats.getInstance()));
+        register(ROUND_ROBIN, RoundRobinOwnerStrategy::new);
+    }
+    
+    private DialStrategies() {
+    }
+    
+    /**
+     * 注册策略，同名时覆盖
+     */
+    public static synchronized void register(String name, Factory factory) {
+        factories.put(name, factory);
+    }
+    
+    /**
+     * 按名称创建策略
+     *
+     * @return 未注册时返回null
+     */
+    public static synchronized DialStrategy create(String name) {
+        Factory factory = factories.get(name);
+        return factory != null ? factory.create() : null;
+    }
+    
+    public static synchronized List<String> names() {
+        return new ArrayList<>(factories.keySet());
+    }
+}
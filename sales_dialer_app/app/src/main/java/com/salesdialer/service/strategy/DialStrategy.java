@@ -0,0 +1,29 @@
+package com.salesdialer.service.strategy;
+
+import com.salesdialer.model.Customer;
+
+import java.util.List;
+
+/**
+ * 拨号排序策略
+ * 为每个客户计算一个long排序键，键越小越先拨打；排序前每个客户只计算一次，比较时只比较键
+ *
+ * <p>键必须非负，DialScheduler把负数区间留给到期的回访。</p>
+ */
+public interface DialStrategy {
+    
+    /**
+     * 策略名称，与DialStrategies中的注册名一致
+     */
+    String getName();
+    
+    /**
+     * 计算排序键之前调用一次，需要整体统计的策略（如按归属人轮转）在这里预处理
+     */
+    void prepare(List<Customer> customers, long now);
+    
+    /**
+     * 计算客户的排序键
+     */
+    long score(Customer customer, long now);
+}
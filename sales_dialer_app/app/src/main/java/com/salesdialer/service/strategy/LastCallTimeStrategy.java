@@ -0,0 +1,25 @@
+package com.salesdialer.service.strategy;
+
+import com.salesdialer.model.Customer;
+
+import java.util.List;
+
+/**
+ * 最久未拨打优先，从未拨打的排最前
+ */
+public class LastCallTimeStrategy implements DialStrategy {
+    
+    @Override
+    public String getName() {
+        return DialStrategies.TIME;
+    }
+    
+    @Override
+    public void prepare(List<Customer> customers, long now) {
+    }
+    
+    @Override
+    public long score(Customer customer, long now) {
+        return Math.max(0, customer.getLastCallTime());
+    }
+}
@@ -0,0 +1,25 @@
+package com.salesdialer.service.strategy;
+
+import com.salesdialer.model.Customer;
+
+import java.util.List;
+
+/**
+ * 等级优先（A级优先），同级保持原顺序
+ */
+public class PriorityStrategy implements DialStrategy {
+    
+    @Override
+    public String getName() {
+        return DialStrategies.PRIORITY;
+    }
+    
+    @Override
+    public void prepare(List<Customer> customers, long now) {
+    }
+    
+    @Override
+    public long score(Customer customer, long now) {
+        return Scores.levelRank(customer);
+    }
+}
@@ -0,0 +1,36 @@
+package com.salesdialer.service.strategy;
+
+import com.salesdialer.model.Customer;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 随机顺序
+ */
+public class RandomStrategy implements DialStrategy {
+    
+    private final Random random;
+    
+    public RandomStrategy() {
+        this(new Random());
+    }
+    
+    public RandomStrategy(Random random) {
+        this.random = random;
+    }
+    
+    @Override
+    public String getName() {
+        return DialStrategies.RANDOM;
+    }
+    
+    @Override
+    public void prepare(List<Customer> customers, long now) {
+    }
+    
+    @Override
+    public long score(Customer customer, long now) {
+        return random.nextLong() >>> 1;
+    }
+}
@@ -0,0 +1,39 @@
+package com.salesdialer.service.strategy;
+
+import com.salesdialer.model.Customer;
+
+import java.util.List;
+
+/**
+ * 近期拨打衰减
+ * 刚拨打过的客户沉到队尾，其惩罚按半衰期指数衰减后逐渐回到前面；惩罚相同时按等级排序
+ */
+public class RecencyDecayStrategy implements DialStrategy {
+    
+    private static final double LN2 = Math.log(2);
+    // 等级占用键的低3位
+    private static final int LEVEL_BITS = 3;
+    
+    private double halfLifeHours = 24;
+    
+    @Override
+    public String getName() {
+        return DialStrategies.RECENCY;
+    }
+    
+    @Override
+    public void prepare(List<Customer> customers, long now) {
+    }
+    
+    @Override
+    public long score(Customer customer, long now) {
+        double hours = Scores.hoursSinceLastCall(customer, now);
+        double penalty = hours == Double.MAX_VALUE ? 0 : Math.exp(-LN2 * hours / halfLifeHours);
+        return (Scores.toKey(penalty) << LEVEL_BITS) | Scores.levelRank(customer);
+    }
+    
+    public RecencyDecayStrategy setHalfLifeHours(double halfLifeHours) {
+        this.halfLifeHours = Math.max(0.1, halfLifeHours);
+        return this;
+    }
+}
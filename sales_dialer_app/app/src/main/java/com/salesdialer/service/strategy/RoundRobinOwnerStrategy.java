@@ -0,0 +1,57 @@
+package com.salesdialer.service.strategy;
+
+import com.salesdialer.model.Customer;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按归属人轮转
+ * 每轮从每个归属人名下各取一个客户，避免连续拨打同一销售的客户；
+ * 归属人内部按等级、最后拨打时间排序
+ */
+public class RoundRobinOwnerStrategy implements DialStrategy {
+    
+    // 归属人序号占用键的低20位
+    private static final int OWNER_BITS = 20;
+    // prepare之后新加入的客户排在最后
+    private static final long UNPREPARED_KEY = Long.MAX_VALUE / 4;
+    
+    private final Map<Integer, Long> keys = new HashMap<>();
+    
+    @Override
+    public String getName() {
+        return DialStrategies.ROUND_ROBIN;
+    }
+    
+    @Override
+    public void prepare(List<Customer> customers, long now) {
+        keys.clear();
+        
+        List<Customer> sorted = new ArrayList<>(customers);
+        sorted.sort((c1, c2) -> {
+            int byLevel = Integer.compare(Scores.levelRank(c1), Scores.levelRank(c2));
+            return byLevel != 0 ? byLevel : Long.compare(c1.getLastCallTime(), c2.getLastCallTime());
+        });
+        
+        // 归属人 -> {序号, 已分配轮次}
+        Map<Integer, int[]> owners = new HashMap<>();
+        for (Customer customer : sorted) {
+            int[] owner = owners.get(customer.getOwnerId());
+            if (owner == null) {
+                owner = new int[]{owners.size(), 0};
+                owners.put(customer.getOwnerId(), owner);
+            }
+            long round = owner[1]++;
+            keys.put(customer.getId(), (round << OWNER_BITS) | owner[0]);
+        }
+    }
+    
+    @Override
+    public long score(Customer customer, long now) {
+        Long key = keys.get(customer.getId());
+        return key != null ? key : UNPREPARED_KEY;
+    }
+}
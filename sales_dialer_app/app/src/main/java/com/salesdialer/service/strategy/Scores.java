@@ -0,0 +1,49 @@
+package com.salesdialer.service.strategy;
+
+import com.salesdialer.model.Customer;
+
+/**
+ * 策略共用的评分工具
+ */
+final class Scores {
+    
+    // 未知等级的排名，排在所有已知等级之后
+    static final int UNKNOWN_LEVEL_RANK = 5;
+    
+    // 浮点评分转换为long键时的精度
+    static final double SCALE = 1_000_000d;
+    
+    static final long HOUR_MS = 60 * 60 * 1000L;
+    
+    private Scores() {
+    }
+    
+    /**
+     * 等级排名 1（A级）~ 5（未知）
+     */
+    static int levelRank(Customer customer) {
+        return Math.min(customer.getPriority(), UNKNOWN_LEVEL_RANK);
+    }
+    
+    /**
+     * 距上次拨打的小时数，从未拨打返回Double.MAX_VALUE
+     */
+    static double hoursSinceLastCall(Customer customer, long now) {
+        long lastCallTime = customer.getLastCallTime();
+        if (lastCallTime <= 0) {
+            return Double.MAX_VALUE;
+        }
+        return Math.max(0, now - lastCallTime) / (double) HOUR_MS;
+    }
+    
+    /**
+     * 把非负评分转换为long键
+     */
+    static long toKey(double value) {
+        if (value <= 0) {
+            return 0;
+        }
+        double scaled = value * SCALE;
+        return scaled >= Long.MAX_VALUE / 4 ? Long.MAX_VALUE / 4 : (long) scaled;
+    }
+}
@@ -0,0 +1,26 @@
+package com.salesdialer.service.strategy;
+
+import com.salesdialer.model.Customer;
+
+import java.util.List;
+
+/**
+ * 保持原顺序，用于已由服务器按DialQueueQuery排好序的队列
+ */
+public class ServerOrderStrategy implements DialStrategy {
+    
+    @Override
+    public String getName() {
+        return DialStrategies.SERVER;
+    }
+    
+    @Override
+    public void prepare(List<Customer> customers, long now) {
+    }
+    
+    @Override
+    public long score(Customer customer, long now) {
+        // 键全部相同，排序按原顺序输出
+        return 0;
+    }
+}
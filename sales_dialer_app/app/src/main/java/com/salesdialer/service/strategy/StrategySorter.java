@@ -0,0 +1,103 @@
+package com.salesdialer.service.strategy;
+
+import com.salesdialer.model.Customer;
+
+import java.util.List;
+
+/**
+ * 按策略排序客户列表
+ * 每个客户只计算一次排序键，之后在long[]和int[]上原地堆排序，比较过程不装箱、不创建对象；
+ * 键相同时按原顺序排列，结果与稳定排序一致
+ *
+ * <p>缓冲区在多次排序之间复用，非线程安全。</p>
+ */
+public class StrategySorter {
+    
+    private long[] keys = new long[0];
+    private int[] order = new int[0];
+    private Customer[] buffer = new Customer[0];
+    
+    /**
+     * 原地排序
+     */
+    public void sort(List<Customer> customers, DialStrategy strategy) {
+        int n = customers.size();
+        if (n < 2) {
+            return;
+        }
+        ensureCapacity(n);
+        
+        long now = System.currentTimeMillis();
+        strategy.prepare(customers, now);
+        for (int i = 0; i < n; i++) {
+            Customer customer = customers.get(i);
+            buffer[i] = customer;
+            keys[i] = strategy.score(customer, now);
+            order[i] = i;
+        }
+        
+        heapSort(n);
+        
+        for (int i = 0; i < n; i++) {
+            customers.set(i, buffer[order[i]]);
+        }
+        for (int i = 0; i < n; i++) {
+            buffer[i] = null;
+        }
+    }
+    
+    private void ensureCapacity(int n) {
+        if (keys.length < n) {
+            keys = new long[n];
+            order = new int[n];
+            buffer = new Customer[n];
+        }
+    }
+    
+    private void heapSort(int n) {
+        for (int i = (n >>> 1) - 1; i >= 0; i--) {
+            siftDown(i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(0, end);
+            siftDown(0, end);
+        }
+    }
+    
+    /**
+     * 大顶堆下沉，堆顶为当前最大元素
+     */
+    private void siftDown(int position, int size) {
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                return;
+            }
+            int right = child + 1;
+            if (right < size && greater(right, child)) {
+                child = right;
+            }
+            if (!greater(child, position)) {
+                return;
+            }
+            swap(position, child);
+            position = child;
+        }
+    }
+    
+    private boolean greater(int a, int b) {
+        if (keys[a] != keys[b]) {
+            return keys[a] > keys[b];
+        }
+        return order[a] > order[b];
+    }
+    
+    private void swap(int a, int b) {
+        long key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+        int index = order[a];
+        order[a] = order[b];
+        order[b] = index;
+    }
+}
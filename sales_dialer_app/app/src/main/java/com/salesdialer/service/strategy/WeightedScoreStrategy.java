@@ -0,0 +1,63 @@
+package com.salesdialer.service.strategy;
+
+import com.salesdialer.model.Customer;
+
+import java.util.List;
+
+/**
+ * 多因素加权评分
+ * 评分 = 等级权重 × (等级排名 - 1) + 拨打次数权重 × 拨打次数 + 近期拨打权重 × 近期拨打程度，评分越低越先拨打
+ *
+ * <p>近期拨打程度在刚拨打时为1，随时间线性降到0（超过idleHours小时或从未拨打）。</p>
+ */
+public class WeightedScoreStrategy implements DialStrategy {
+    
+    private static final int MAX_COUNTED_ATTEMPTS = 20;
+    
+    private double levelWeight = 1.0;
+    private double attemptWeight = 0.1;
+    private double recentWeight = 0.5;
+    private double idleHours = 72;
+    
+    @Override
+    public String getName() {
+        return DialStrategies.WEIGHTED;
+    }
+    
+    @Override
+    public void prepare(List<Customer> customers, long now) {
+    }
+    
+    @Override
+    public long score(Customer customer, long now) {
+        double hours = Scores.hoursSinceLastCall(customer, now);
+        double recent = hours >= idleHours ? 0 : 1 - hours / idleHours;
+        int attempts = Math.min(customer.getCallCount(), MAX_COUNTED_ATTEMPTS);
+        
+        double value = levelWeight * (Scores.levelRank(customer) - 1)
+                + attemptWeight * attempts
+                + recentWeight * recent;
+        return Scores.toKey(value);
+    }
+    
+    // Setters
+    public WeightedScoreStrategy setLevelWeight(double levelWeight) {
+        this.levelWeight = levelWeight;
+        return this;
+    }
+    
+    public WeightedScoreStrategy setAttemptWeight(double attemptWeight) {
+        this.attemptWeight = attemptWeight;
+        return this;
+    }
+    
+    public WeightedScoreStrategy setRecentWeight(double recentWeight) {
+        this.recentWeight = recentWeight;
+        return this;
+    }
+    
+    public WeightedScoreStrategy setIdleHours(double idleHours) {
+        this.idleHours = Math.max(1, idleHours);
+        return this;
+    }
+}
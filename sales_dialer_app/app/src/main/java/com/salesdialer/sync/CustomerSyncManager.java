@@ -0,0 +1,200 @@
+package com.salesdialer.sync;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.google.gson.JsonArray;
+import com.salesdialer.api.OdooApiClient;
+import com.salesdialer.api.RecordSink;
+import com.salesdialer.database.AppDatabase;
+import com.salesdialer.database.CustomerDao;
+import com.salesdialer.model.Customer;
+import com.salesdialer.utils.OdooDateTime;
+import com.salesdialer.utils.PreferenceUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 客户增量同步管理器
+ * 以 write_date + id 作为键集游标，只拉取上次同步之后变更的客户并合并到本地customers表
+ *
+ * <p>Odoo的search_read只返回精确到秒的write_date，而数据库中保存的是微秒，
+ * 因此游标按"秒"推进：游标 (S, lastId) 表示 write_date 早于 S 的记录已全部同步，
+ * 且 S 这一秒内 id 不大于 lastId 的记录已同步；lastId 为 -1 表示 S 这一秒需要从头拉取。
+ * 同步结束时游标停在最后一条记录所在的秒（lastId 为 -1），而不是跳到下一秒：
+ * 这一秒内在拉取之后才写入的记录（可能是id更小的旧客户）下次同步会重新拉到，代价是重复合并这一秒的少量记录。
+ * 游标以UTC毫秒保存，只在构建搜索域时格式化为Odoo时间字符串。</p>
+ */
+public class CustomerSyncManager {
+    
+    private static final String TAG = "CustomerSyncManager";
+    
+    private static final String KEY_CURSOR_SECOND = "customer_sync_write_ms";
+    // 旧版本以Odoo时间字符串保存的游标；本地表结构升级后需全量重新同步，不再沿用
+    private static final String KEY_LEGACY_CURSOR_SECOND = "customer_sync_write_date";
+    private static final String KEY_CURSOR_ID = "customer_sync_last_id";
+    
+    private static final int DEFAULT_PAGE_SIZE = 500;
+    private static final int MERGE_BATCH_SIZE = 200;
+    
+    private final Context context;
+    private final OdooApiClient apiClient;
+    private final CustomerDao customerDao;
+    
+    private int pageSize = DEFAULT_PAGE_SIZE;
+    
+    public CustomerSyncManager(Context context) {
+        this.context = context.getApplicationContext();
+        this.apiClient = OdooApiClient.getInstance(context);
+        this.customerDao = AppDatabase.getInstance(context).customerDao();
+    }
+    
+    /**
+     * 增量同步
+     * 从上次保存的游标处继续拉取，每页合并完成后持久化游标，中断后可从断点续传
+     *
+     * @return 本次合并的客户数
+     */
+    public synchronized int syncIncremental() throws Exception {
+        long second = PreferenceUtils.getLong(context, KEY_CURSOR_SECOND, OdooDateTime.UNSET);
+        int lastId = PreferenceUtils.getInt(context, KEY_CURSOR_ID, -1);
+        long from = second;  // 下一次按write_date拉取的起点
+        int total = 0;
+        
+        while (true) {
+            MergeSink sink = new MergeSink();
+            
+            if (lastId >= 0) {
+                // 按id排空游标所在的这一秒
+                int count = apiClient.searchCustomers(secondDomain(second, lastId),
+                        "id asc", pageSize, 0, sink);
+                sink.flush();
+                total += count;
+                
+                if (count == pageSize) {
+                    lastId = sink.lastId;
+                    saveCursor(second, lastId);
+                } else {
+                    // 这一秒已排空，从下一秒继续拉取；游标仍停在这一秒，直到拉到更晚的记录
+                    from = nextSecond(second);
+                    lastId = -1;
+                    saveCursor(second, lastId);
+                }
+                continue;
+            }
+            
+            // 按write_date顺序拉取下一页
+            int count = apiClient.searchCustomers(fromDomain(from),
+                    "write_date asc, id asc", pageSize, 0, sink);
+            sink.flush();
+            total += count;
+            
+            if (count == 0) {
+                break;
+            }
+            
+            second = floorSecond(sink.lastWriteDate);
+            if (count == pageSize) {
+                // 最后一秒可能只取到一部分，下一轮按id把这一秒排空（会重复合并少量记录）
+                lastId = 0;
+                saveCursor(second, lastId);
+            } else {
+                saveCursor(second, -1);
+                break;
+            }
+        }
+        
+        Log.d(TAG, "Incremental sync merged " + total + " customers");
+        return total;
+    }
+    
+    /**
+     * 清除游标，下次同步将重新拉取全部客户
+     */
+    public synchronized void resetCursor() {
+        PreferenceUtils.remove(context, KEY_CURSOR_SECOND);
+        PreferenceUtils.remove(context, KEY_CURSOR_ID);
+        PreferenceUtils.remove(context, KEY_LEGACY_CURSOR_SECOND);
+    }
+    
+    public void setPageSize(int pageSize) {
+        this.pageSize = pageSize;
+    }
+    
+    private void saveCursor(long second, int lastId) {
+        PreferenceUtils.putLong(context, KEY_CURSOR_SECOND, second);
+        PreferenceUtils.putInt(context, KEY_CURSOR_ID, lastId);
+    }
+    
+    /**
+     * write_date >= from（from为UNSET表示首次同步，不加条件）
+     */
+    private static JsonArray fromDomain(long from) {
+        JsonArray domain = new JsonArray();
+        if (from != OdooDateTime.UNSET) {
+            domain.add(leaf("write_date", ">=", OdooDateTime.format(from)));
+        }
+        return domain;
+    }
+    
+    /**
+     * second <= write_date < second + 1s 且 id > lastId
+     */
+    private static JsonArray secondDomain(long second, int lastId) {
+        JsonArray domain = new JsonArray();
+        domain.add(leaf("write_date", ">=", OdooDateTime.format(second)));
+        domain.add(leaf("write_date", "<", OdooDateTime.format(nextSecond(second))));
+        
+        JsonArray idLeaf = new JsonArray();
+        idLeaf.add("id");
+        idLeaf.add(">");
+        idLeaf.add(lastId);
+        domain.add(idLeaf);
+        return domain;
+    }
+    
+    private static JsonArray leaf(String field, String operator, String value) {
+        JsonArray leaf = new JsonArray();
+        leaf.add(field);
+        leaf.add(operator);
+        leaf.add(value);
+        return leaf;
+    }
+    
+    private static long floorSecond(long millis) {
+        return millis / 1000 * 1000;
+    }
+    
+    private static long nextSecond(long second) {
+        return floorSecond(second) + 1000;
+    }
+    
+    /**
+     * 分批合并的接收器
+     * 攒够一批后在一个事务中写入Room，并记录最后一条记录的游标位置
+     */
+    private class MergeSink implements RecordSink<Customer> {
+        
+        private final List<Customer> batch = new ArrayList<>(MERGE_BATCH_SIZE);
+        private long lastWriteDate;
+        private int lastId;
+        
+        @Override
+        public void accept(Customer customer) {
+            batch.add(customer);
+            lastWriteDate = customer.getWriteDate();
+            lastId = customer.getId();
+            if (batch.size() >= MERGE_BATCH_SIZE) {
+                flush();
+            }
+        }
+        
+        void flush() {
+            if (!batch.isEmpty()) {
+                customerDao.mergeFromServer(batch);
+                batch.clear();
+            }
+        }
+    }
+}
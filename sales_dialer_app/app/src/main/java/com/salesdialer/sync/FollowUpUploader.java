@@ -0,0 +1,114 @@
+package com.salesdialer.sync;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.salesdialer.api.OdooApiClient;
+import com.salesdialer.database.AppDatabase;
+import com.salesdialer.database.FollowUpDao;
+import com.salesdialer.model.FollowUp;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 跟进记录上传器
+ * 将本地未同步的跟进记录批量上传到Odoo，并回填服务器id
+ *
+ * <p>每次失败都计入记录的上传失败次数，达到OutboxWorker.MAX_ATTEMPTS后不再上传（记录保留在本地）；
+ * 服务器拒绝的批次逐条重试，只放弃被拒绝的那几条。</p>
+ */
+public class FollowUpUploader {
+    
+    private static final String TAG = "FollowUpUploader";
+    private static final int QUERY_BATCH_SIZE = 500; // 按id更新的批大小（SQLite参数上限）
+    
+    private final OdooApiClient apiClient;
+    private final AppDatabase database;
+    private final FollowUpDao followUpDao;
+    
+    public FollowUpUploader(Context context) {
+        this.apiClient = OdooApiClient.getInstance(context);
+        this.database = AppDatabase.getInstance(context);
+        this.followUpDao = database.followUpDao();
+    }
+    
+    /**
+     * 上传所有未同步的跟进记录
+     *
+     * @return 本次上传成功的条数
+     * @throws Exception 网络等临时失败，之前的批次已标记为已同步
+     */
+    public int uploadPending() throws Exception {
+        List<FollowUp> pending = followUpDao.getUnsyncedFollowUps(OutboxWorker.MAX_ATTEMPTS);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        
+        int created;
+        try {
+            // 每批拿到服务器id后立即回写，后续批次失败时重试不会重复创建已上传的记录
+            created = apiClient.createFollowUps(pending, this::markSynced);
+        } catch (Exception e) {
+            List<FollowUp> remaining = unsynced(pending);
+            if (!OutboxWorker.isPermanentFailure(e)) {
+                recordFailure(remaining);
+                throw e;
+            }
+            
+            // 整批被服务器拒绝，逐条重试找出被拒绝的记录
+            created = pending.size() - remaining.size();
+            for (FollowUp followUp : remaining) {
+                try {
+                    created += apiClient.createFollowUps(Collections.singletonList(followUp), this::markSynced);
+                } catch (Exception single) {
+                    if (!OutboxWorker.isPermanentFailure(single)) {
+                        recordFailure(unsynced(remaining));
+                        throw single;
+                    }
+                    Log.e(TAG, "Giving up follow-up " + followUp.getLocalId() + ": " + single.getMessage());
+                    followUpDao.setUploadAttempts(followUp.getLocalId(), OutboxWorker.MAX_ATTEMPTS);
+                }
+            }
+        }
+        
+        Log.d(TAG, "Uploaded " + created + "/" + pending.size() + " follow-ups");
+        return created;
+    }
+    
+    private void markSynced(List<FollowUp> batch) {
+        database.runInTransaction(() -> {
+            for (FollowUp followUp : batch) {
+                followUpDao.markSynced(followUp.getLocalId(), followUp.getId());
+            }
+        });
+    }
+    
+    /**
+     * 未上传的记录各计一次失败
+     */
+    private void recordFailure(List<FollowUp> followUps) {
+        database.runInTransaction(() -> {
+            for (int from = 0; from < followUps.size(); from += QUERY_BATCH_SIZE) {
+                List<FollowUp> batch = followUps.subList(from,
+                        Math.min(from + QUERY_BATCH_SIZE, followUps.size()));
+                int[] localIds = new int[batch.size()];
+                for (int i = 0; i < localIds.length; i++) {
+                    localIds[i] = batch.get(i).getLocalId();
+                }
+                followUpDao.incrementUploadAttempts(localIds);
+            }
+        });
+    }
+    
+    private static List<FollowUp> unsynced(List<FollowUp> followUps) {
+        List<FollowUp> result = new ArrayList<>();
+        for (FollowUp followUp : followUps) {
+            if (!followUp.isSynced()) {
+                result.add(followUp);
+            }
+        }
+        return result;
+    }
+}
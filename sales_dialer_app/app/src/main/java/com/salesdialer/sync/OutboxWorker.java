@@ -0,0 +1,220 @@
+package com.salesdialer.sync;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.salesdialer.api.OdooApiClient;
+import com.salesdialer.api.OdooRpcException;
+import com.salesdialer.database.AppDatabase;
+import com.salesdialer.database.OutboxDao;
+import com.salesdialer.model.OutboxOperation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 发件箱上传任务
+ * 先批量上传跟进记录，再上传客户修改；写入值相同的客户合并为一次write。
+ * 网络失败时返回retry，由WorkManager按指数退避重试。
+ *
+ * <p>每个操作的每次失败都计数，达到MAX_ATTEMPTS后放弃；服务器明确拒绝的操作（见OdooRpcException.isPermanent）
+ * 不再重试，直接放弃，单个有问题的操作不会阻塞整个发件箱。</p>
+ */
+public class OutboxWorker extends Worker {
+    
+    private static final String TAG = "OutboxWorker";
+    private static final String WORK_NAME = "outbox_drain";
+    
+    private static final int CUSTOMER_BATCH_SIZE = 100;
+    static final int MAX_ATTEMPTS = 10;
+    private static final long INITIAL_BACKOFF_SECONDS = 30;
+    
+    public OutboxWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+    
+    /**
+     * 安排一次上传
+     * 已有排队中（未开始执行）的任务时不再重复安排，它会处理到新写入的数据；
+     * 正在执行的任务之后追加一次，保证执行期间的新写入也能被上传
+     */
+    public static void schedule(Context context) {
+        WorkManager workManager = WorkManager.getInstance(context);
+        try {
+            for (WorkInfo info : workManager.getWorkInfosForUniqueWork(WORK_NAME).get()) {
+                if (info.getState() == WorkInfo.State.ENQUEUED) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            Log.w(TAG, "Failed to query outbox work state: " + e.getMessage());
+        }
+        
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.CONNECTED)
+                .build();
+        
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(OutboxWorker.class)
+                .setConstraints(constraints)
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, INITIAL_BACKOFF_SECONDS, TimeUnit.SECONDS)
+                .build();
+        
+        workManager.enqueueUniqueWork(WORK_NAME, ExistingWorkPolicy.APPEND_OR_REPLACE, request);
+    }
+    
+    @NonNull
+    @Override
+    public Result doWork() {
+        try {
+            new FollowUpUploader(getApplicationContext()).uploadPending();
+            drainCustomerUpdates();
+        } catch (Exception e) {
+            Log.w(TAG, "Outbox drain failed, will retry: " + e.getMessage());
+            return Result.retry();
+        }
+        return Result.success();
+    }
+    
+    /**
+     * 服务器明确拒绝，重试不会成功；网络错误、会话失效等返回false
+     */
+    static boolean isPermanentFailure(Exception e) {
+        return e instanceof OdooRpcException && ((OdooRpcException) e).isPermanent();
+    }
+    
+    /**
+     * 上传客户修改
+     */
+    private void drainCustomerUpdates() throws Exception {
+        AppDatabase database = AppDatabase.getInstance(getApplicationContext());
+        OutboxDao outboxDao = database.outboxDao();
+        OdooApiClient apiClient = OdooApiClient.getInstance(getApplicationContext());
+        
+        while (true) {
+            List<OutboxOperation> operations = outboxDao.getPendingOperations(
+                    OutboxOperation.TYPE_UPDATE_CUSTOMER, CUSTOMER_BATCH_SIZE);
+            if (operations.isEmpty()) {
+                return;
+            }
+            
+            // 按写入值分组，相同的值一次write多个客户
+            Map<String, List<OutboxOperation>> groups = new LinkedHashMap<>();
+            for (OutboxOperation operation : operations) {
+                List<OutboxOperation> group = groups.get(operation.getPayload());
+                if (group == null) {
+                    group = new ArrayList<>();
+                    groups.put(operation.getPayload(), group);
+                }
+                group.add(operation);
+            }
+            
+            boolean progressed = false;
+            for (Map.Entry<String, List<OutboxOperation>> entry : groups.entrySet()) {
+                JsonObject vals = JsonParser.parseString(entry.getKey()).getAsJsonObject();
+                progressed |= writeGroup(database, apiClient, entry.getValue(), vals);
+            }
+            
+            if (!progressed) {
+                throw new Exception("Server rejected all pending customer updates");
+            }
+        }
+    }
+    
+    /**
+     * 一次write上传一组写入值相同的客户修改
+     *
+     * @return 是否有操作完成（上传成功或被放弃）
+     * @throws Exception 网络等临时失败，已计入失败次数
+     */
+    private boolean writeGroup(AppDatabase database, OdooApiClient apiClient,
+                               List<OutboxOperation> group, JsonObject vals) throws Exception {
+        OutboxDao outboxDao = database.outboxDao();
+        int[] customerIds = new int[group.size()];
+        for (int i = 0; i < customerIds.length; i++) {
+            customerIds[i] = group.get(i).getTargetId();
+        }
+        
+        boolean written;
+        try {
+            written = apiClient.updateCustomers(customerIds, vals);
+        } catch (Exception e) {
+            if (!isPermanentFailure(e)) {
+                recordFailure(database, group);
+                throw e;
+            }
+            if (group.size() == 1) {
+                drop(database, group.get(0), e.getMessage());
+                return true;
+            }
+            // 整组被拒绝（如其中一个客户已被删除），逐个重试找出出错的客户
+            boolean progressed = false;
+            for (OutboxOperation operation : group) {
+                progressed |= writeGroup(database, apiClient, Collections.singletonList(operation), vals);
+            }
+            return progressed;
+        }
+        
+        if (!written) {
+            // 服务器返回未写入，计一次失败
+            return recordFailure(database, group);
+        }
+        database.runInTransaction(() -> {
+            for (OutboxOperation operation : group) {
+                if (outboxDao.deleteIfUnchanged(operation.getId(), operation.getVersion()) > 0) {
+                    database.customerDao().setSynced(new int[]{operation.getTargetId()}, true);
+                }
+            }
+        });
+        return true;
+    }
+    
+    /**
+     * 每个操作计一次失败，达到MAX_ATTEMPTS的放弃
+     *
+     * @return 是否有操作被放弃
+     */
+    private boolean recordFailure(AppDatabase database, List<OutboxOperation> group) {
+        boolean dropped = false;
+        for (OutboxOperation operation : group) {
+            if (operation.getAttempts() + 1 >= MAX_ATTEMPTS) {
+                drop(database, operation, "too many attempts");
+                dropped = true;
+            } else {
+                database.outboxDao().incrementAttempts(operation.getId());
+            }
+        }
+        return dropped;
+    }
+    
+    /**
+     * 放弃一个客户修改
+     * 本地客户恢复为已同步，下次同步到该客户时由服务器数据覆盖本地修改；
+     * 期间又合并了新修改（version变化）的保留，下次重新上传
+     */
+    private void drop(AppDatabase database, OutboxOperation operation, String reason) {
+        Log.e(TAG, "Dropping update for customer " + operation.getTargetId()
+                + " (" + reason + "): " + operation.getPayload());
+        database.runInTransaction(() -> {
+            if (database.outboxDao().deleteIfUnchanged(operation.getId(), operation.getVersion()) > 0) {
+                database.customerDao().setSynced(new int[]{operation.getTargetId()}, true);
+            }
+        });
+    }
+}
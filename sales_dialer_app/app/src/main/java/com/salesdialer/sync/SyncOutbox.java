@@ -0,0 +1,119 @@
+package com.salesdialer.sync;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.salesdialer.database.AppDatabase;
+import com.salesdialer.model.Customer;
+import com.salesdialer.model.FollowUp;
+import com.salesdialer.model.OutboxOperation;
+import com.salesdialer.service.CallbackScheduler;
+import com.salesdialer.utils.OdooDateTime;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 离线发件箱
+ * 写操作先落到本地数据库（预写），立即返回，由OutboxWorker在有网络时上传
+ *
+ * <p>跟进记录直接以 follow_ups.is_synced = 0 作为待上传标记；
+ * 客户修改写入outbox表，同一客户的多次修改合并为一行，最终只发一次write。</p>
+ */
+public class SyncOutbox {
+    
+    private static final String TAG = "SyncOutbox";
+    private static SyncOutbox instance;
+    
+    private final Context context;
+    private final AppDatabase database;
+    private final Gson gson = new Gson();
+    
+    // 所有落库操作串行执行，调用方（拨号流程、界面）从不等待磁盘或网络
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    
+    private SyncOutbox(Context context) {
+        this.context = context.getApplicationContext();
+        this.database = AppDatabase.getInstance(this.context);
+    }
+    
+    public static synchronized SyncOutbox getInstance(Context context) {
+        if (instance == null) {
+            instance = new SyncOutbox(context);
+        }
+        return instance;
+    }
+    
+    /**
+     * 提交跟进记录
+     */
+    public void submitFollowUp(FollowUp followUp) {
+        executor.execute(() -> {
+            followUp.setSynced(false);
+            if (followUp.getFollowTime() == OdooDateTime.UNSET) {
+                followUp.setFollowTime(System.currentTimeMillis());
+            }
+            long localId = database.followUpDao().insertFollowUp(followUp);
+            followUp.setLocalId((int) localId);
+            Log.d(TAG, "Queued follow-up " + localId + " for customer " + followUp.getCustomerId());
+            OutboxWorker.schedule(context);
+            if (followUp.getNextFollowTime() != OdooDateTime.UNSET) {
+                CallbackScheduler.getInstance(context).reschedule();
+            }
+        });
+    }
+    
+    /**
+     * 提交客户修改
+     * 与该客户尚未上传的修改合并，后写入的字段覆盖先写入的；
+     * 修改同时写入本地客户表，界面不必等到上传和下次同步就能看到新值
+     */
+    public void submitCustomerUpdate(int customerId, Map<String, Object> values) {
+        JsonObject vals = gson.toJsonTree(values).getAsJsonObject();
+        executor.execute(() -> {
+            database.runInTransaction(() -> {
+                OutboxOperation operation = database.outboxDao()
+                        .getOperation(OutboxOperation.TYPE_UPDATE_CUSTOMER, customerId);
+                if (operation == null) {
+                    database.outboxDao().insertOperation(new OutboxOperation(
+                            OutboxOperation.TYPE_UPDATE_CUSTOMER, customerId, vals.toString()));
+                } else {
+                    JsonObject merged = JsonParser.parseString(operation.getPayload()).getAsJsonObject();
+                    for (Map.Entry<String, JsonElement> entry : vals.entrySet()) {
+                        merged.add(entry.getKey(), entry.getValue());
+                    }
+                    operation.setPayload(merged.toString());
+                    operation.setVersion(operation.getVersion() + 1);
+                    database.outboxDao().updateOperation(operation);
+                }
+                applyLocally(customerId, vals);
+            });
+            Log.d(TAG, "Queued update for customer " + customerId);
+            OutboxWorker.schedule(context);
+        });
+    }
+    
+    /**
+     * 把写入值按Odoo字段名合并到本地客户行，并标记为未同步
+     * 本地没有该客户时只记录发件箱
+     */
+    private void applyLocally(int customerId, JsonObject vals) {
+        Customer customer = database.customerDao().getCustomerById(customerId);
+        if (customer == null) {
+            return;
+        }
+        // 按与服务器数据相同的字段映射合并，本地字段（拨打时间、次数等）原样保留
+        JsonObject merged = gson.toJsonTree(customer).getAsJsonObject();
+        for (Map.Entry<String, JsonElement> entry : vals.entrySet()) {
+            merged.add(entry.getKey(), entry.getValue());
+        }
+        Customer updated = gson.fromJson(merged, Customer.class);
+        updated.setSynced(false);
+        database.customerDao().updateCustomer(updated);
+    }
+}
@@ -0,0 +1,118 @@
+package com.salesdialer.utils;
+
+import android.content.Context;
+import android.security.keystore.KeyGenParameterSpec;
+import android.security.keystore.KeyProperties;
+import android.util.Base64;
+import android.util.Log;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyStore;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+/**
+ * 登录凭据存储
+ * 密码用Android Keystore中的AES密钥（GCM）加密后存入SharedPreferences，密钥不可导出；
+ * 会话失效时OdooApiClient据此自动重新登录
+ */
+public final class CredentialStore {
+    
+    private static final String TAG = "CredentialStore";
+    
+    private static final String KEYSTORE = "AndroidKeyStore";
+    private static final String KEY_ALIAS = "odoo_credentials";
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int GCM_TAG_BITS = 128;
+    
+    private static final String PREF_LOGIN = "odoo_login";
+    private static final String PREF_PASSWORD = "odoo_password";
+    
+    private CredentialStore() {
+    }
+    
+    /**
+     * 登录凭据
+     */
+    public static final class Credentials {
+        
+        public final String login;
+        public final String password;
+        
+        Credentials(String login, String password) {
+            this.login = login;
+            this.password = password;
+        }
+    }
+    
+    public static void save(Context context, String login, String password) {
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, getOrCreateKey());
+            byte[] iv = cipher.getIV();
+            byte[] encrypted = cipher.doFinal(password.getBytes(StandardCharsets.UTF_8));
+            
+            // iv长度(1字节) + iv + 密文
+            ByteBuffer buffer = ByteBuffer.allocate(1 + iv.length + encrypted.length);
+            buffer.put((byte) iv.length).put(iv).put(encrypted);
+            
+            PreferenceUtils.putString(context, PREF_LOGIN, login);
+            PreferenceUtils.putString(context, PREF_PASSWORD,
+                    Base64.encodeToString(buffer.array(), Base64.NO_WRAP));
+        } catch (Exception e) {
+            // 无法加密时不保存，会话失效后需要手动登录
+            Log.w(TAG, "Failed to save credentials", e);
+            clear(context);
+        }
+    }
+    
+    /**
+     * @return 未保存或无法解密（如密钥已失效）时返回null
+     */
+    public static Credentials load(Context context) {
+        String login = PreferenceUtils.getString(context, PREF_LOGIN, "");
+        String stored = PreferenceUtils.getString(context, PREF_PASSWORD, "");
+        if (login.isEmpty() || stored.isEmpty()) {
+            return null;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(Base64.decode(stored, Base64.NO_WRAP));
+            byte[] iv = new byte[buffer.get()];
+            buffer.get(iv);
+            byte[] encrypted = new byte[buffer.remaining()];
+            buffer.get(encrypted);
+            
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, getOrCreateKey(), new GCMParameterSpec(GCM_TAG_BITS, iv));
+            return new Credentials(login, new String(cipher.doFinal(encrypted), StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            Log.w(TAG, "Failed to load credentials", e);
+            return null;
+        }
+    }
+    
+    public static void clear(Context context) {
+        PreferenceUtils.remove(context, PREF_LOGIN);
+        PreferenceUtils.remove(context, PREF_PASSWORD);
+    }
+    
+    private static SecretKey getOrCreateKey() throws Exception {
+        KeyStore keyStore = KeyStore.getInstance(KEYSTORE);
+        keyStore.load(null);
+        if (keyStore.containsAlias(KEY_ALIAS)) {
+            return (SecretKey) keyStore.getKey(KEY_ALIAS, null);
+        }
+        
+        KeyGenerator generator = KeyGenerator.getInstance(KeyProperties.KEY_ALGORITHM_AES, KEYSTORE);
+        generator.init(new KeyGenParameterSpec.Builder(KEY_ALIAS,
+                KeyProperties.PURPOSE_ENCRYPT | KeyProperties.PURPOSE_DECRYPT)
+                .setBlockModes(KeyProperties.BLOCK_MODE_GCM)
+                .setEncryptionPaddings(KeyProperties.ENCRYPTION_PADDING_NONE)
+                .build());
+        return generator.generateKey();
+    }
+}
@@ -0,0 +1,187 @@
+package com.salesdialer.utils;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Odoo日期时间解析与格式化
+ * Odoo的Datetime字段以UTC字符串 "yyyy-MM-dd HH:mm:ss" 传输，本地统一保存为UTC毫秒时间戳，0表示未设置
+ *
+ * <p>按固定位置逐字符解析，不创建Calendar、SimpleDateFormat等对象，无共享状态，可在任意线程调用。
+ * 也接受Date字段的 "yyyy-MM-dd" 和带小数秒的 "yyyy-MM-dd HH:mm:ss.ffffff"（只保留到毫秒）。</p>
+ */
+public final class OdooDateTime {
+    
+    public static final long UNSET = 0;
+    
+    private static final long SECOND_MS = 1000L;
+    private static final long DAY_MS = 24 * 60 * 60 * SECOND_MS;
+    
+    private OdooDateTime() {
+    }
+    
+    /**
+     * 解析Odoo日期时间
+     *
+     * @return UTC毫秒时间戳；null或空串返回UNSET
+     * @throws IllegalArgumentException 格式不正确
+     */
+    public static long parse(CharSequence text) {
+        if (text == null || text.length() == 0) {
+            return UNSET;
+        }
+        int length = text.length();
+        if (length != 10 && length < 19) {
+            throw new IllegalArgumentException("Invalid Odoo datetime: " + text);
+        }
+        
+        int year = digits(text, 0, 4);
+        expect(text, 4, '-');
+        int month = digits(text, 5, 2);
+        expect(text, 7, '-');
+        int day = digits(text, 8, 2);
+        if (month < 1 || month > 12 || day < 1 || day > 31) {
+            throw new IllegalArgumentException("Invalid Odoo datetime: " + text);
+        }
+        long millis = daysFromCivil(year, month, day) * DAY_MS;
+        if (length == 10) {
+            return millis;
+        }
+        
+        expect(text, 10, ' ');
+        int hour = digits(text, 11, 2);
+        expect(text, 13, ':');
+        int minute = digits(text, 14, 2);
+        expect(text, 16, ':');
+        int second = digits(text, 17, 2);
+        if (hour > 23 || minute > 59 || second > 59) {
+            throw new IllegalArgumentException("Invalid Odoo datetime: " + text);
+        }
+        millis += ((hour * 60L + minute) * 60 + second) * SECOND_MS;
+        
+        if (length > 19) {
+            // 小数秒：取前三位作为毫秒
+            expect(text, 19, '.');
+            int fraction = 0;
+            for (int i = 20, scale = 100; i < length; i++, scale /= 10) {
+                int digit = text.charAt(i) - '0';
+                if (digit < 0 || digit > 9) {
+                    throw new IllegalArgumentException("Invalid Odoo datetime: " + text);
+                }
+                fraction += digit * scale;
+            }
+            millis += fraction;
+        }
+        return millis;
+    }
+    
+    /**
+     * 格式化为Odoo日期时间 "yyyy-MM-dd HH:mm:ss"（UTC，舍去毫秒）
+     */
+    public static String format(long millis) {
+        char[] out = new char[19];
+        long days = Math.floorDiv(millis, DAY_MS);
+        int secondOfDay = (int) (Math.floorMod(millis, DAY_MS) / SECOND_MS);
+        
+        // civil_from_days，见daysFromCivil
+        long z = days + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+        int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+        int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+        
+        put(out, 0, year, 4);
+        out[4] = '-';
+        put(out, 5, month, 2);
+        out[7] = '-';
+        put(out, 8, day, 2);
+        out[10] = ' ';
+        put(out, 11, secondOfDay / 3600, 2);
+        out[13] = ':';
+        put(out, 14, secondOfDay / 60 % 60, 2);
+        out[16] = ':';
+        put(out, 17, secondOfDay % 60, 2);
+        return new String(out);
+    }
+    
+    /**
+     * 1970-01-01起的天数（Howard Hinnant的days_from_civil算法，适用于公历任意日期）
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468;
+    }
+    
+    private static int digits(CharSequence text, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IllegalArgumentException("Invalid Odoo datetime: " + text);
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+    
+    private static void expect(CharSequence text, int index, char c) {
+        if (text.charAt(index) != c) {
+            throw new IllegalArgumentException("Invalid Odoo datetime: " + text);
+        }
+    }
+    
+    private static void put(char[] out, int start, int value, int count) {
+        for (int i = start + count - 1; i >= start; i--) {
+            out[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+    
+    /**
+     * Gson适配器，用于模型中以long保存的日期时间字段
+     * 读取时Odoo的false、null映射为UNSET；写出时UNSET写为null
+     */
+    public static class GsonAdapter extends TypeAdapter<Long> {
+        
+        @Override
+        public void write(JsonWriter out, Long value) throws IOException {
+            if (value == null || value == UNSET) {
+                out.nullValue();
+            } else {
+                out.value(format(value));
+            }
+        }
+        
+        @Override
+        public Long read(JsonReader in) throws IOException {
+            JsonToken token = in.peek();
+            if (token == JsonToken.NULL) {
+                in.nextNull();
+                return UNSET;
+            }
+            if (token == JsonToken.BOOLEAN) {
+                in.nextBoolean();
+                return UNSET;
+            }
+            String text = in.nextString();
+            try {
+                return parse(text);
+            } catch (IllegalArgumentException e) {
+                throw new JsonSyntaxException(e.getMessage() + " at " + in.getPath(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.salesdialer.utils;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Odoo many2one字段解析
+ * search_read返回的many2one值为 [id, 显示名称]，空值为false；本地只保存id，0表示未设置
+ */
+public final class OdooMany2one {
+    
+    public static final int UNSET = 0;
+    
+    private OdooMany2one() {
+    }
+    
+    /**
+     * 取many2one值中的id
+     *
+     * @return id；null、false或格式不符时返回UNSET
+     */
+    public static int idOf(JsonElement value) {
+        if (value == null || value.isJsonNull()) {
+            return UNSET;
+        }
+        if (value.isJsonArray()) {
+            JsonArray array = value.getAsJsonArray();
+            return array.size() > 0 && isNumber(array.get(0)) ? array.get(0).getAsInt() : UNSET;
+        }
+        return isNumber(value) ? value.getAsInt() : UNSET;
+    }
+    
+    private static boolean isNumber(JsonElement value) {
+        return value.isJsonPrimitive() && value.getAsJsonPrimitive().isNumber();
+    }
+    
+    /**
+     * Gson适配器，用于模型中以int保存的many2one字段
+     * 读取时取数组第一个元素，也接受纯数字（本地序列化的结果）；false、null映射为UNSET；写出时UNSET写为null
+     */
+    public static class GsonAdapter extends TypeAdapter<Integer> {
+        
+        @Override
+        public void write(JsonWriter out, Integer value) throws IOException {
+            if (value == null || value == UNSET) {
+                out.nullValue();
+            } else {
+                out.value(value);
+            }
+        }
+        
+        @Override
+        public Integer read(JsonReader in) throws IOException {
+            switch (in.peek()) {
+                case NULL:
+                    in.nextNull();
+                    return UNSET;
+                case BOOLEAN:
+                    in.nextBoolean();
+                    return UNSET;
+                case NUMBER:
+                    return in.nextInt();
+                case BEGIN_ARRAY:
+                    int id = UNSET;
+                    in.beginArray();
+                    if (in.hasNext()) {
+                        if (in.peek() == JsonToken.NUMBER) {
+                            id = in.nextInt();
+                        } else {
+                            in.skipValue();
+                        }
+                    }
+                    while (in.hasNext()) {
+                        in.skipValue();
+                    }
+                    in.endArray();
+                    return id;
+                default:
+                    in.skipValue();
+                    return UNSET;
+            }
+        }
+    }
+}
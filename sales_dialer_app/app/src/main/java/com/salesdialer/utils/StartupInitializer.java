@@ -0,0 +1,59 @@
+package com.salesdialer.utils;
+
+import android.content.Context;
+import android.os.Process;
+import android.util.Log;
+
+import com.salesdialer.api.OdooApiClient;
+import com.salesdialer.database.AppDatabase;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 启动预热
+ * 由SalesDialerApplication.onCreate调用warmUp()，把启动页和客户列表首次需要的初始化移到后台线程：
+ * 读取SharedPreferences、创建OkHttp客户端和OdooApiClient、打开Room数据库、预连接Odoo服务器。
+ * 主线程随后调用getInstance时对象已就绪，首次请求无需再做DNS解析和TLS握手
+ *
+ * <p>预热只是提前执行，不改变任何组件的行为；主线程在预热完成前访问时照常同步创建。
+ * 预热失败（如数据库打开失败、网络不可用）只记录日志，由主线程首次访问时再次暴露。</p>
+ */
+public final class StartupInitializer {
+    
+    private static final String TAG = "StartupInitializer";
+    
+    private static final AtomicBoolean started = new AtomicBoolean(false);
+    
+    private StartupInitializer() {
+    }
+    
+    public static void warmUp(Context context) {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        Context appContext = context.getApplicationContext();
+        Thread thread = new Thread(() -> {
+            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+            
+            try {
+                StartupTracer.beginSection("warmUp:apiClient");
+                OdooApiClient apiClient = OdooApiClient.getInstance(appContext);
+                StartupTracer.endSection();
+                StartupTracer.mark("api_client_ready");
+                
+                StartupTracer.beginSection("warmUp:database");
+                AppDatabase.getInstance(appContext).getOpenHelper().getWritableDatabase();
+                StartupTracer.endSection();
+                StartupTracer.mark("database_ready");
+                
+                StartupTracer.beginSection("warmUp:preconnect");
+                apiClient.preconnect();
+                StartupTracer.endSection();
+                StartupTracer.mark("server_preconnected");
+            } catch (Exception e) {
+                Log.e(TAG, "Warm-up failed", e);
+            }
+        }, "StartupWarmUp");
+        thread.start();
+    }
+}
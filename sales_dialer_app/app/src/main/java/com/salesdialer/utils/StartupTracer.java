@@ -0,0 +1,50 @@
+package com.salesdialer.utils;
+
+import android.os.Build;
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+
+/**
+ * 冷启动耗时记录
+ * 以进程启动为零点记录各阶段完成时间，输出到logcat（tag: StartupTracer），
+ * 同时写入系统trace，可在Perfetto或Macrobenchmark的TraceSectionMetric中按段名统计
+ *
+ * <pre>
+ * StartupTracer.mark("customer_list_shown");
+ * </pre>
+ */
+public final class StartupTracer {
+    
+    private static final String TAG = "StartupTracer";
+    
+    // Android 7.0以下无法取得进程启动时间，以本类加载时间近似
+    private static final long PROCESS_START = Build.VERSION.SDK_INT >= Build.VERSION_CODES.N
+            ? Process.getStartElapsedRealtime() : SystemClock.elapsedRealtime();
+    
+    private StartupTracer() {
+    }
+    
+    /**
+     * 记录某一阶段完成
+     *
+     * @return 距进程启动的毫秒数
+     */
+    public static long mark(String stage) {
+        long elapsed = SystemClock.elapsedRealtime() - PROCESS_START;
+        Log.i(TAG, stage + " +" + elapsed + "ms");
+        return elapsed;
+    }
+    
+    /**
+     * 开始一段耗时区间，需与endSection在同一线程配对调用
+     */
+    public static void beginSection(String section) {
+        Trace.beginSection(section);
+    }
+    
+    public static void endSection() {
+        Trace.endSection();
+    }
+}
@@ -0,0 +1,177 @@
+package com.salesdialer.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import com.salesdialer.utils.OdooDateTime;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ModelCodec编解码往返：null字段、未知枚举、未设置的日期时间和非ASCII字符串
+ */
+public class ModelCodecTest {
+    
+    private static final long WRITE_DATE = OdooDateTime.parse("2024-03-01 08:30:15");
+    private static final long CREATE_DATE = OdooDateTime.parse("2023-12-31 23:59:59");
+    
+    @Test
+    public void customersRoundTrip() throws IOException {
+        Customer full = new Customer(42, "张三·Ünïcødé 😀", "13800138000");
+        full.setWechatName("微信昵称");
+        full.setCustomerType(CustomerType.PRIVATE);
+        full.setLevel(CustomerLevel.A);
+        full.setStatus(CustomerStatus.VALID);
+        full.setRequirement("三居室，预算300万");
+        full.setRemark("周末联系");
+        full.setIntendedProperty("滨江一号");
+        full.setOwnerId(7);
+        full.setFollowCount(3);
+        full.setWriteDate(WRITE_DATE);
+        full.setCreateDate(CREATE_DATE);
+        full.setSynced(false);
+        full.setLastCallTime(1700000000123L);
+        full.setCallCount(5);
+        full.setFieldSet(CustomerFieldSet.DIAL_QUEUE);
+        
+        Customer empty = new Customer();
+        empty.setId(43);
+        
+        List<Customer> decoded = ModelCodec.decodeCustomers(
+                ModelCodec.encodeCustomers(Arrays.asList(full, empty)));
+        
+        assertEquals(2, decoded.size());
+        assertCustomerEquals(full, decoded.get(0));
+        assertCustomerEquals(empty, decoded.get(1));
+        
+        Customer unknown = decoded.get(1);
+        assertNull(unknown.getName());
+        assertNull(unknown.getPhone());
+        assertEquals(CustomerType.UNKNOWN, unknown.getCustomerType());
+        assertEquals(CustomerLevel.UNKNOWN, unknown.getLevel());
+        assertEquals(CustomerStatus.UNKNOWN, unknown.getStatus());
+        assertEquals(OdooDateTime.UNSET, unknown.getWriteDate());
+        assertEquals(OdooDateTime.UNSET, unknown.getCreateDate());
+    }
+    
+    @Test
+    public void followUpsRoundTrip() throws IOException {
+        FollowUp full = new FollowUp(42, "客户说下周再联系 ✓", FollowUpResult.INTERESTED);
+        full.setLocalId(1);
+        full.setId(900);
+        full.setFollowerId(7);
+        full.setFollowTime(WRITE_DATE);
+        full.setNextFollowTime(WRITE_DATE + 7 * 24 * 3600 * 1000L);
+        full.setCreateDate(CREATE_DATE);
+        full.setSynced(true);
+        full.setCallDuration(185);
+        full.setUploadAttempts(3);
+        
+        FollowUp empty = new FollowUp();
+        empty.setLocalId(2);
+        
+        List<FollowUp> decoded = ModelCodec.decodeFollowUps(
+                ModelCodec.encodeFollowUps(Arrays.asList(full, empty)));
+        
+        assertEquals(2, decoded.size());
+        assertFollowUpEquals(full, decoded.get(0));
+        assertFollowUpEquals(empty, decoded.get(1));
+        
+        FollowUp unknown = decoded.get(1);
+        assertNull(unknown.getFollowContent());
+        assertEquals(FollowUpResult.UNKNOWN, unknown.getResult());
+        assertEquals(OdooDateTime.UNSET, unknown.getNextFollowTime());
+    }
+    
+    @Test
+    public void readsFollowUpWithoutUploadAttempts() throws IOException {
+        FollowUp followUp = new FollowUp(42, "旧版本快照", FollowUpResult.INTERESTED);
+        followUp.setCallDuration(60);
+        followUp.setUploadAttempts(5);
+        byte[] bytes = ModelCodec.encodeFollowUps(Collections.singletonList(followUp));
+        
+        // 构造版本2的快照：去掉记录末尾的上传失败次数
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        buffer.put(4, (byte) 2);
+        buffer.putInt(10, buffer.getInt(10) - 4);
+        List<FollowUp> decoded = ModelCodec.decodeFollowUps(Arrays.copyOf(bytes, bytes.length - 4));
+        
+        assertEquals(1, decoded.size());
+        assertEquals(60, decoded.get(0).getCallDuration());
+        assertEquals(0, decoded.get(0).getUploadAttempts());
+    }
+    
+    @Test
+    public void emptyListRoundTrip() throws IOException {
+        assertTrue(ModelCodec.decodeCustomers(
+                ModelCodec.encodeCustomers(Collections.<Customer>emptyList())).isEmpty());
+        assertTrue(ModelCodec.decodeFollowUps(
+                ModelCodec.encodeFollowUps(Collections.<FollowUp>emptyList())).isEmpty());
+    }
+    
+    @Test
+    public void rejectsWrongKind() throws IOException {
+        byte[] bytes = ModelCodec.encodeCustomers(Collections.singletonList(new Customer(1, "a", "1")));
+        try {
+            ModelCodec.decodeFollowUps(bytes);
+            fail("Decoded customers as follow-ups");
+        } catch (IOException expected) {
+            // 类型不符
+        }
+    }
+    
+    @Test
+    public void rejectsTruncatedSnapshot() throws IOException {
+        byte[] bytes = ModelCodec.encodeCustomers(Collections.singletonList(new Customer(1, "张三", "1")));
+        try {
+            ModelCodec.decodeCustomers(Arrays.copyOf(bytes, bytes.length - 3));
+            fail("Decoded a truncated snapshot");
+        } catch (IOException expected) {
+            // 记录长度超出数据末尾
+        }
+    }
+    
+    private static void assertCustomerEquals(Customer expected, Customer actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getName(), actual.getName());
+        assertEquals(expected.getPhone(), actual.getPhone());
+        assertEquals(expected.getWechatName(), actual.getWechatName());
+        assertEquals(expected.getCustomerType(), actual.getCustomerType());
+        assertEquals(expected.getLevel(), actual.getLevel());
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.getRequirement(), actual.getRequirement());
+        assertEquals(expected.getRemark(), actual.getRemark());
+        assertEquals(expected.getIntendedProperty(), actual.getIntendedProperty());
+        assertEquals(expected.getOwnerId(), actual.getOwnerId());
+        assertEquals(expected.getFollowCount(), actual.getFollowCount());
+        assertEquals(expected.getWriteDate(), actual.getWriteDate());
+        assertEquals(expected.getCreateDate(), actual.getCreateDate());
+        assertEquals(expected.isSynced(), actual.isSynced());
+        assertEquals(expected.getLastCallTime(), actual.getLastCallTime());
+        assertEquals(expected.getCallCount(), actual.getCallCount());
+        assertEquals(expected.getFieldSet(), actual.getFieldSet());
+    }
+    
+    private static void assertFollowUpEquals(FollowUp expected, FollowUp actual) {
+        assertEquals(expected.getLocalId(), actual.getLocalId());
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getCustomerId(), actual.getCustomerId());
+        assertEquals(expected.getFollowerId(), actual.getFollowerId());
+        assertEquals(expected.getFollowContent(), actual.getFollowContent());
+        assertEquals(expected.getFollowTime(), actual.getFollowTime());
+        assertEquals(expected.getResult(), actual.getResult());
+        assertEquals(expected.getNextFollowTime(), actual.getNextFollowTime());
+        assertEquals(expected.getCreateDate(), actual.getCreateDate());
+        assertEquals(expected.isSynced(), actual.isSynced());
+        assertEquals(expected.getCallDuration(), actual.getCallDuration());
+        assertEquals(expected.getUploadAttempts(), actual.getUploadAttempts());
+    }
+}
@@ -0,0 +1,79 @@
+package com.salesdialer.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.salesdialer.model.Customer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DialScheduler回访：未到期的回访不会提前拨打，到期后排到队首
+ */
+public class DialSchedulerTest {
+    
+    private static List<Customer> customers(int count) {
+        List<Customer> customers = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            customers.add(new Customer(i, "客户" + i, "1380013800" + i));
+        }
+        return customers;
+    }
+    
+    @Test
+    public void futureCallbackIsNotPolledBeforeDue() {
+        DialScheduler scheduler = new DialScheduler(customers(3));
+        Customer target = new Customer(2, "客户2", "13800138002");
+        scheduler.scheduleCallback(target, System.currentTimeMillis() + 60 * 60 * 1000L);
+        
+        Customer polled;
+        int count = 0;
+        while ((polled = scheduler.poll()) != null) {
+            assertNotEquals(2, polled.getId());
+            count++;
+        }
+        assertEquals(2, count);
+        // 回访客户仍计入剩余队列，但不阻止会话结束
+        assertEquals(1, scheduler.size());
+        assertTrue(scheduler.isExhausted());
+    }
+    
+    @Test
+    public void futureCallbackForPolledCustomerIsAddedBack() throws InterruptedException {
+        DialScheduler scheduler = new DialScheduler(customers(3));
+        Customer first = scheduler.poll();
+        scheduler.scheduleCallback(first, System.currentTimeMillis() + 50);
+        
+        Customer next = scheduler.poll();
+        assertNotEquals(first.getId(), next.getId());
+        
+        Thread.sleep(100);
+        assertEquals(first.getId(), scheduler.poll().getId());
+    }
+    
+    @Test
+    public void dueCallbackJumpsToFront() throws InterruptedException {
+        DialScheduler scheduler = new DialScheduler(customers(5));
+        scheduler.scheduleCallback(new Customer(4, "客户4", "13800138004"), System.currentTimeMillis() + 50);
+        Thread.sleep(100);
+        
+        assertEquals(4, scheduler.poll().getId());
+        assertNotEquals(4, scheduler.poll().getId());
+    }
+    
+    @Test
+    public void removedWaitingCustomerIsNotPromoted() throws InterruptedException {
+        DialScheduler scheduler = new DialScheduler(customers(1));
+        scheduler.scheduleCallback(new Customer(9, "客户9", "13800138009"), System.currentTimeMillis() + 50);
+        assertEquals(9, scheduler.remove(9).getId());
+        Thread.sleep(100);
+        
+        assertEquals(1, scheduler.poll().getId());
+        assertNull(scheduler.poll());
+    }
+}
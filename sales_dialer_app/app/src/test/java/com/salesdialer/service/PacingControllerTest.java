@@ -0,0 +1,80 @@
+package com.salesdialer.service;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * PacingController间隔计算：基础间隔、历史先验、样本足够后的公式和上下限
+ * 默认目标空闲占比0.3，间隔 = 接通率 × 通话时长 × 0.3 / 0.7 - 振铃，限制在[2000, 30000]
+ */
+public class PacingControllerTest {
+    
+    private static final long BASE_GAP = 5000;
+    
+    @Test
+    public void usesBaseGapWithoutSamplesOrPrior() {
+        PacingController pacing = new PacingController(BASE_GAP);
+        assertEquals(BASE_GAP, pacing.computeGap());
+        
+        for (int i = 0; i < 4; i++) {
+            pacing.record(3000, true, 60000);
+        }
+        assertEquals(BASE_GAP, pacing.computeGap());
+        assertEquals(BASE_GAP, pacing.getGapMs());
+    }
+    
+    @Test
+    public void priorAppliesBeforeAnySample() {
+        PacingController pacing = new PacingController(BASE_GAP);
+        pacing.seed(0.5, 60000);
+        
+        // 0.5 × 60000 × 0.3 / 0.7，无振铃样本
+        assertEquals(12857, pacing.computeGap());
+        assertEquals(12857, pacing.getGapMs());
+    }
+    
+    @Test
+    public void priorBlendsWithFewSamples() {
+        PacingController pacing = new PacingController(BASE_GAP);
+        pacing.seed(0.5, 60000);
+        pacing.record(5000, true, 30000);
+        pacing.record(5000, true, 30000);
+        
+        // 先验计3通（1.5通接通）：接通率3.5/5，平均通话150000/3.5，振铃5000
+        assertEquals(7857, pacing.computeGap());
+    }
+    
+    @Test
+    public void priorFadesOnceSamplesAreEnough() {
+        PacingController pacing = new PacingController(BASE_GAP);
+        pacing.seed(1.0, 60000);
+        for (int i = 0; i < 5; i++) {
+            pacing.record(10000, false, 0);
+        }
+        
+        // 接通率0，间隔收缩到下限
+        assertEquals(2000, pacing.computeGap());
+    }
+    
+    @Test
+    public void longAnsweredCallsHitUpperBound() {
+        PacingController pacing = new PacingController(BASE_GAP);
+        for (int i = 0; i < 5; i++) {
+            pacing.record(0, true, 140000);
+        }
+        
+        assertEquals(30000, pacing.computeGap());
+        assertEquals(1.0, pacing.getAnswerRate(), 0.0001);
+    }
+    
+    @Test
+    public void resetClearsPrior() {
+        PacingController pacing = new PacingController(BASE_GAP);
+        pacing.seed(0.5, 60000);
+        pacing.reset();
+        
+        assertEquals(BASE_GAP, pacing.computeGap());
+        assertEquals(BASE_GAP, pacing.getGapMs());
+    }
+}
@@ -0,0 +1,50 @@
+package com.salesdialer.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import com.salesdialer.model.FollowUp;
+
+import org.junit.Test;
+
+/**
+ * many2one字段：[id, 名称]、false、null和本地序列化的纯数字
+ */
+public class OdooMany2oneTest {
+    
+    private final Gson gson = new Gson();
+    
+    @Test
+    public void readsIdFromOdooPair() {
+        FollowUp followUp = gson.fromJson(
+                "{\"customer_id\": [42, \"张三\"], \"follower_id\": [7, \"销售A\"]}", FollowUp.class);
+        assertEquals(42, followUp.getCustomerId());
+        assertEquals(7, followUp.getFollowerId());
+    }
+    
+    @Test
+    public void readsFalseAndNullAsUnset() {
+        FollowUp followUp = gson.fromJson("{\"customer_id\": false, \"follower_id\": null}", FollowUp.class);
+        assertEquals(OdooMany2one.UNSET, followUp.getCustomerId());
+        assertEquals(OdooMany2one.UNSET, followUp.getFollowerId());
+    }
+    
+    @Test
+    public void roundTripsLocalJson() {
+        FollowUp original = new FollowUp();
+        original.setCustomerId(42);
+        FollowUp restored = gson.fromJson(gson.toJson(original), FollowUp.class);
+        assertEquals(42, restored.getCustomerId());
+        assertEquals(OdooMany2one.UNSET, restored.getFollowerId());
+    }
+    
+    @Test
+    public void idOfElement() {
+        assertEquals(42, OdooMany2one.idOf(JsonParser.parseString("[42, \"张三\"]")));
+        assertEquals(42, OdooMany2one.idOf(JsonParser.parseString("42")));
+        assertEquals(OdooMany2one.UNSET, OdooMany2one.idOf(JsonParser.parseString("false")));
+        assertEquals(OdooMany2one.UNSET, OdooMany2one.idOf(JsonParser.parseString("[]")));
+        assertEquals(OdooMany2one.UNSET, OdooMany2one.idOf(null));
+    }
+}